@@ -0,0 +1,70 @@
+package ru.itis.todo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.github.IssueTemplate;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Тело issue из шаблона: прежняя цепочка String.replace против разобранного заранее шаблона
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IssueTemplateBenchmark {
+    private static final String BODY = """
+            **Задача**: {description}
+            **Файл**: {file}
+            **Строка**: {line}
+            **Приоритет**: {priority}
+            **Категория**: {category}
+            {assignee}
+            {tags}
+            """;
+
+    private TodoItem item;
+    private IssueTemplate compiled;
+
+    @Setup
+    public void setUp() {
+        item = TodoItem.builder()
+                .description("Replace the linear lookup in the issue index with a hash map")
+                .filePath(Path.of("module7/src/main/java/ru/itis/generated/Generated123.java"))
+                .lineNumber(418)
+                .priority("high")
+                .category("perf")
+                .assignee("@dev3")
+                .tags(new String[]{"backend", "cache"})
+                .build();
+        compiled = IssueTemplate.compile(BODY);
+    }
+
+    @Benchmark
+    public String replaceChain() {
+        return BODY
+                .replace("{description}", item.getDescription())
+                .replace("{file}", item.getFilePath().toString())
+                .replace("{line}", String.valueOf(item.getLineNumber()))
+                .replace("{priority}", item.getPriority())
+                .replace("{category}", item.getCategory())
+                .replace("{assignee}", item.getAssignee() != null ? item.getAssignee() : "")
+                .replace("{tags}", item.getTags().length > 0 ? String.join(", ", item.getTags()) : "");
+    }
+
+    @Benchmark
+    public String compiled() {
+        return compiled.render(item);
+    }
+}
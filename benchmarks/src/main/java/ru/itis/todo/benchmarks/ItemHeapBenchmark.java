@@ -0,0 +1,109 @@
+package ru.itis.todo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.parser.MarkerMatcher;
+import ru.itis.todo.parser.TodoSyntax;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.ref.Reference;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Время разбора и память, удерживаемая результатами: сколько байт кучи приходится на один TodoItem.
+// pooled=false воспроизводит прежнее представление - свои строки приоритета, категории и меток у каждого TODO
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g", "-XX:+UseSerialGC"})
+public class ItemHeapBenchmark {
+    private static final int FILES = 200;
+    private static final int LINES = 1000;
+
+    @Param({"false", "true"})
+    private boolean pooled;
+
+    private final TodoSyntax syntax = new TodoSyntax(MarkerMatcher.DEFAULT);
+    private final List<String> sources = new ArrayList<>();
+    private final List<Path> paths = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < FILES; i++) {
+            sources.add(SyntheticSources.generate("java", "Generated" + i, LINES, 0.5, i));
+            paths.add(Path.of("module" + i / 20, "src", "Generated" + i + ".java"));
+        }
+    }
+
+    @Benchmark
+    public int parse() {
+        // Возвращается только размер: JMH не должен удерживать список и искажать замер кучи
+        return parseItems().size();
+    }
+
+    @TearDown
+    public void reportRetainedHeap() {
+        // Замер вне итераций JMH: результат удерживается, пока не посчитана занятая куча после сборки мусора
+        long baseline = usedHeap();
+        List<TodoItem> items = parseItems();
+        long retained = usedHeap() - baseline;
+        System.out.printf("%npooled=%s items=%d retained=%d bytes (%.1f bytes/item)%n",
+                pooled, items.size(), retained, (double) retained / items.size());
+        Reference.reachabilityFence(items);
+    }
+
+    private List<TodoItem> parseItems() {
+        List<TodoItem> items = new ArrayList<>();
+        for (int i = 0; i < FILES; i++) {
+            String source = sources.get(i);
+            syntax.parse(source, 0, source.length(), paths.get(i), 1, pooled ? items::add : item -> items.add(copy(item)));
+        }
+        return items;
+    }
+
+    private static TodoItem copy(TodoItem item) {
+        // Так значения выглядели до пула: каждая подстрока и каждый split - новые объекты
+        return TodoItem.builder()
+                .description(item.getDescription())
+                .filePath(item.getFilePath())
+                .lineNumber(item.getLineNumber())
+                .priority(new String(item.getPriority()))
+                .category(new String(item.getCategory()))
+                .assignee(item.getAssignee() != null ? new String(item.getAssignee()) : null)
+                .tags(String.join(",", item.getTags()).split(","))
+                .marker(item.getMarker())
+                .build();
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        // Занятость пулов сразу после сборки: MemoryMXBean.getHeapMemoryUsage() у Serial GC сюда не годится
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null) {
+                used += usage.getUsed();
+            }
+        }
+        return used;
+    }
+}
@@ -0,0 +1,113 @@
+package ru.itis.todo.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.local.LocalIssueCreator;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Сверка через локальное хранилище без GitHub: первый запуск (synced=false) создаёт все issues через планировщик
+// с повторами, повторный (synced=true) ничего не меняет и измеряет чтение индекса и построение плана
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LocalSyncBenchmark {
+    private static final int FILES = 1000;
+
+    @Param({"10000", "100000"})
+    private int issues;
+
+    @Param({"1", "8"})
+    private int concurrency;
+
+    @Param({"0", "0.05"})
+    private double failureRate;
+
+    @Param({"0"})
+    private long latencyMillis;
+
+    @Param({"false", "true"})
+    private boolean synced;
+
+    private List<TodoItem> items;
+    private PrintStream stdout;
+    private Path root;
+    private LocalIssueCreator creator;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        items = new ArrayList<>(issues);
+        for (int i = 0; i < issues; i++) {
+            items.add(TodoItem.builder()
+                    .description("Generated task " + i)
+                    .filePath(Path.of("module" + i % FILES / 50, "src", "Generated" + i % FILES + ".java"))
+                    .lineNumber(i / FILES + 1)
+                    .priority("medium")
+                    .category("perf")
+                    .tags(new String[]{"bench"})
+                    .build());
+        }
+        // Строка прогресса на каждый issue измеряла бы вывод, а не сверку
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("todo-bench-local-");
+        TodoConfig config = new TodoConfig();
+        config.getGithub().setApi(TodoConfig.GitHubApi.LOCAL);
+        config.getGithub().setConcurrency(concurrency);
+        config.getGithub().setRetryBackoffMillis(10);
+        config.getLocal().setPath(root.toString());
+        config.getLocal().setFailureRate(failureRate);
+        config.getLocal().setLatencyMillis(latencyMillis);
+        creator = new LocalIssueCreator(config, new TodoMetrics(new SimpleMeterRegistry()));
+        if (synced) {
+            creator.sync(ScanSnapshot.full(items), false);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        creator.close();
+        SyntheticSources.delete(root);
+    }
+
+    @TearDown(Level.Trial)
+    public void restoreOutput() {
+        System.setOut(stdout);
+    }
+
+    @Benchmark
+    public SyncSummary sync() {
+        return creator.sync(ScanSnapshot.full(items), false);
+    }
+}
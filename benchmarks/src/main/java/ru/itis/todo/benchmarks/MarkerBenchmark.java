@@ -0,0 +1,89 @@
+package ru.itis.todo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.parser.MarkerMatcher;
+import ru.itis.todo.parser.TodoSyntax;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarkerBenchmark {
+    // Шаблон, которым парсеры искали TODO до перехода на автомат маркеров
+    private static final String LEGACY_PATTERN =
+            "(?i)(?:%s):?\\s*([^|]+)(?:\\|\\s*priority:\\s*(\\w+))?(?:\\|\\s*category:\\s*(\\w+))?(?:\\|\\s*assignee:\\s*(@\\w+))?(?:\\|\\s*tags:\\s*([\\w,]+))?";
+    private static final Path FILE = Path.of("Generated.java");
+
+    @Param({"TODO", "TODO,FIXME,HACK,XXX"})
+    private String markers;
+
+    @Param({"todo", "code", "long", "pipes"})
+    private String input;
+
+    private String line;
+    private Matcher legacy;
+    private TodoSyntax syntax;
+
+    @Setup
+    public void setUp() {
+        String[] list = markers.split(",");
+        String alternatives = Arrays.stream(list)
+                .map(marker -> Pattern.quote(marker.toLowerCase(Locale.ROOT)))
+                .collect(Collectors.joining("|"));
+        legacy = Pattern.compile(LEGACY_PATTERN.formatted(alternatives)).matcher("");
+        syntax = new TodoSyntax(MarkerMatcher.of(Arrays.asList(list)));
+
+        line = switch (input) {
+            case "todo" -> "// TODO: cache the result | priority: high | category: perf | tags: a,b";
+            case "code" -> "int compute(int x) { return x * 42 / 2; }";
+            // Длинная строка, в которой маркер встречается только в конце
+            case "long" -> "// " + "lorem ipsum dolor ".repeat(250) + " " + list[list.length - 1] + ": late marker";
+            case "pipes" -> "// TODO: many segments" + " | note: x".repeat(500);
+            default -> throw new IllegalArgumentException("Unknown input: " + input);
+        };
+    }
+
+    @Benchmark
+    public void legacyRegex(Blackhole blackhole) {
+        // Разбор и построение TodoItem в том виде, в каком это делали парсеры
+        Matcher matcher = legacy.reset(line);
+        if (matcher.find()) {
+            blackhole.consume(TodoItem.builder()
+                    .description(matcher.group(1).trim())
+                    .filePath(FILE)
+                    .lineNumber(1)
+                    .priority(matcher.group(2) != null ? matcher.group(2).toLowerCase() : TodoItem.DEFAULT_PRIORITY)
+                    .category(matcher.group(3) != null ? matcher.group(3).toLowerCase() : TodoItem.DEFAULT_CATEGORY)
+                    .assignee(matcher.group(4))
+                    .tags(matcher.group(5) != null ? matcher.group(5).split(",") : new String[0])
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void markerAutomaton(Blackhole blackhole) {
+        syntax.parse(line, 2, line.length(), FILE, 1, blackhole::consume);
+    }
+}
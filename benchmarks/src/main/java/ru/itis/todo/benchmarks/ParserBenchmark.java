@@ -0,0 +1,72 @@
+package ru.itis.todo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoConfig.JavaParserMode;
+import ru.itis.todo.api.TodoParser;
+import ru.itis.todo.parser.CSharpTodoParser;
+import ru.itis.todo.parser.JavaTodoParser;
+import ru.itis.todo.parser.PythonTodoParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+    @Param({"java-lexer", "java-ast", "python", "csharp"})
+    private String parser;
+
+    @Param({"200", "20000"})
+    private int lines;
+
+    @Param({"0.0", "0.01", "0.2"})
+    private double todoDensity;
+
+    private Path dir;
+    private Path file;
+    private TodoParser todoParser;
+
+    @Setup
+    public void setUp() throws IOException {
+        TodoConfig config = new TodoConfig();
+        config.getParsers().setJava(parser.equals("java-ast") ? JavaParserMode.AST : JavaParserMode.LEXER);
+        todoParser = switch (parser) {
+            case "java-lexer", "java-ast" -> new JavaTodoParser(config);
+            case "python" -> new PythonTodoParser(config);
+            case "csharp" -> new CSharpTodoParser(config);
+            default -> throw new IllegalArgumentException("Unknown parser: " + parser);
+        };
+        String language = parser.startsWith("java") ? "java" : parser;
+        dir = Files.createTempDirectory("todo-bench-");
+        file = SyntheticSources.write(dir, language, "Generated", lines, todoDensity, 42);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticSources.delete(dir);
+    }
+
+    @Benchmark
+    public void parse(Blackhole blackhole) {
+        todoParser.parse(file, blackhole::consume);
+    }
+}
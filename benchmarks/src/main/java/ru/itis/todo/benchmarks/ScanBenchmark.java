@@ -0,0 +1,86 @@
+package ru.itis.todo.benchmarks;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.api.cli.TodoCliCommand;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.parser.CSharpTodoParser;
+import ru.itis.todo.parser.JavaTodoParser;
+import ru.itis.todo.parser.PythonTodoParser;
+import ru.itis.todo.scan.ParserRegistry;
+import ru.itis.todo.scan.TodoScanner;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ScanBenchmark {
+    private static final String[] LANGUAGES = {"java", "python", "csharp"};
+    private static final int FILES_PER_DIR = 50;
+
+    @Param({"100", "2000"})
+    private int files;
+
+    @Param({"1", "8"})
+    private int threads;
+
+    @Param({"false", "true"})
+    private boolean cache;
+
+    private Path root;
+    private TodoScanner scanner;
+    private TodoCliCommand command;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("todo-bench-scan-");
+        for (int i = 0; i < files; i++) {
+            Path dir = Files.createDirectories(root.resolve("module" + i / FILES_PER_DIR).resolve("src"));
+            // Большинство файлов без TODO, как в реальных репозиториях
+            double density = i % 10 == 0 ? 0.05 : 0.0;
+            SyntheticSources.write(dir, LANGUAGES[i % LANGUAGES.length], "Generated" + i, 300, density, i);
+        }
+
+        TodoConfig config = new TodoConfig();
+        scanner = new TodoScanner(new ParserRegistry(List.of(
+                new JavaTodoParser(config), new PythonTodoParser(config), new CSharpTodoParser(config))), config,
+                new TodoMetrics(new SimpleMeterRegistry()));
+        command = TodoCliCommand.builder()
+                .sourceDir(root)
+                .workingTree(true)
+                .threads(threads)
+                .noCache(!cache)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        SyntheticSources.delete(root);
+    }
+
+    @Benchmark
+    public List<TodoItem> scan() throws IOException {
+        return scanner.scan(root, command);
+    }
+}
@@ -0,0 +1,127 @@
+package ru.itis.todo.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.scan.TodoItemReader;
+import ru.itis.todo.scan.TodoItemWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Бинарный формат результатов против JSON (Jackson) на одинаковом наборе TODO
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final int MAGIC = 0x42454E43;
+    private static final String[] PRIORITIES = {"high", "medium", "low"};
+    private static final String[] CATEGORIES = {"feature", "bug", "refactor", "perf"};
+    private static final String[] TAGS = {"backend", "api", "cache", "ui", "db"};
+    private static final TypeReference<List<JsonItem>> JSON_ITEMS = new TypeReference<>() {
+    };
+
+    @Param({"1000", "100000"})
+    private int items;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private List<TodoItem> todoItems;
+    private byte[] binary;
+    private byte[] json;
+
+    // Так TodoItem выглядел бы в JSON: Path и массив меток как обычные значения
+    public record JsonItem(String file, String description, int line, String priority, String category,
+                           String assignee, String[] tags, String marker) {
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        todoItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            // В среднем по 3 TODO на файл, как в SyntheticSources с плотностью 1%
+            Path file = Path.of("module" + i / 600, "src/main/java/ru/itis/generated", "Generated" + i / 3 + ".java");
+            todoItems.add(TodoItem.builder()
+                    .filePath(file)
+                    .description("Refactor generated method number " + i + " to avoid extra allocations")
+                    .lineNumber(1 + random.nextInt(2000))
+                    .priority(PRIORITIES[random.nextInt(PRIORITIES.length)])
+                    .category(CATEGORIES[random.nextInt(CATEGORIES.length)])
+                    .assignee(random.nextInt(4) == 0 ? "@dev" + random.nextInt(10) : null)
+                    .tags(random.nextBoolean() ? new String[]{TAGS[random.nextInt(TAGS.length)]} : new String[0])
+                    .marker("TODO")
+                    .build());
+        }
+        binary = encodeBinary();
+        json = encodeJson();
+        System.out.printf("%nitems=%d binary=%d bytes (%.1f/item) json=%d bytes (%.1f/item)%n",
+                items, binary.length, (double) binary.length / items, json.length, (double) json.length / items);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (TodoItemWriter writer = new TodoItemWriter(out, MAGIC)) {
+            writer.writeItems(todoItems);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        List<JsonItem> result = new ArrayList<>(todoItems.size());
+        for (TodoItem item : todoItems) {
+            result.add(new JsonItem(item.getFilePath().toString(), item.getDescription(), item.getLineNumber(),
+                    item.getPriority(), item.getCategory(), item.getAssignee(), item.getTags(), item.getMarker()));
+        }
+        return mapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public List<TodoItem> decodeBinary() throws IOException {
+        try (TodoItemReader reader = new TodoItemReader(new ByteArrayInputStream(binary), MAGIC)) {
+            List<TodoItem> result = reader.readItems();
+            reader.verify();
+            return result;
+        }
+    }
+
+    @Benchmark
+    public List<TodoItem> decodeJson() throws IOException {
+        List<JsonItem> decoded = mapper.readValue(json, JSON_ITEMS);
+        List<TodoItem> result = new ArrayList<>(decoded.size());
+        for (JsonItem item : decoded) {
+            result.add(TodoItem.builder()
+                    .filePath(Path.of(item.file()))
+                    .description(item.description())
+                    .lineNumber(item.line())
+                    .priority(item.priority())
+                    .category(item.category())
+                    .assignee(item.assignee())
+                    .tags(item.tags())
+                    .marker(item.marker())
+                    .build());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package ru.itis.todo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Время от запуска процесса до выхода для --help: подъём контекста Spring без сканирования и сети
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StartupBenchmark {
+    private static final String VERSION = "0.0.1-SNAPSHOT";
+
+    // jar - исполняемый jar Spring Boot, cds - обычный jar с архивом AppCDS (./mvnw -Pcds package),
+    // cds-c1 - то же только с C1-компилятором, native - образ GraalVM (./mvnw -Pnative native:compile)
+    @Param({"jar", "cds", "cds-c1"})
+    private String launch;
+
+    private List<String> commandLine;
+
+    @Setup
+    public void setUp() {
+        Path target = Path.of(System.getProperty("todo.target", "../target")).toAbsolutePath().normalize();
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path archive = target.resolve("todo-issue-creator.jsa");
+        Path plainJar = target.resolve("todo-issue-creator-" + VERSION + ".jar");
+
+        commandLine = new ArrayList<>();
+        switch (launch) {
+            case "jar" -> commandLine.addAll(List.of(java, "-jar",
+                    require(target.resolve("todo-issue-creator-" + VERSION + "-exec.jar")).toString()));
+            case "cds" -> commandLine.addAll(List.of(java, "-XX:SharedArchiveFile=" + require(archive),
+                    "-jar", plainJar.toString()));
+            case "cds-c1" -> commandLine.addAll(List.of(java, "-XX:SharedArchiveFile=" + require(archive),
+                    "-XX:TieredStopAtLevel=1", "-jar", plainJar.toString()));
+            case "native" -> commandLine.add(require(target.resolve("todo-issue-creator")).toString());
+            default -> throw new IllegalArgumentException("Unknown launch mode: " + launch);
+        }
+        commandLine.add("--help");
+    }
+
+    @Benchmark
+    public int start() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(commandLine)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException("Process exited with code " + exitCode + ": " + commandLine);
+        }
+        return exitCode;
+    }
+
+    private static Path require(Path artifact) {
+        if (!Files.exists(artifact)) {
+            throw new IllegalStateException("Artifact not found, build it first: " + artifact);
+        }
+        return artifact;
+    }
+}
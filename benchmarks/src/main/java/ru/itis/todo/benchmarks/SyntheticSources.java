@@ -0,0 +1,81 @@
+package ru.itis.todo.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public final class SyntheticSources {
+    private SyntheticSources() {
+    }
+
+    public static String extension(String language) {
+        return switch (language) {
+            case "java" -> ".java";
+            case "python" -> ".py";
+            case "csharp" -> ".cs";
+            default -> throw new IllegalArgumentException("Unknown language: " + language);
+        };
+    }
+
+    public static String generate(String language, String name, int lines, double todoDensity, long seed) {
+        Random random = new Random(seed);
+        StringBuilder source = new StringBuilder(lines * 48);
+        boolean python = language.equals("python");
+        if (python) {
+            source.append("import os\n\n");
+        } else {
+            source.append(language.equals("java") ? "package bench;\n\n" : "namespace Bench;\n\n");
+            source.append("public class ").append(name).append(" {\n");
+        }
+
+        for (int i = 0; i < lines; i++) {
+            if (random.nextDouble() < todoDensity) {
+                source.append(python ? "# " : "    // ")
+                        .append("TODO: generated task ").append(i)
+                        .append(" | priority: high | category: perf | tags: bench,generated\n");
+                continue;
+            }
+            // Обычный код с литералами и комментариями, похожими на TODO, но не являющимися ими
+            switch (random.nextInt(4)) {
+                case 0 -> source.append(python
+                        ? "value_" + i + " = \"string # with hash " + i + "\"\n"
+                        : "    private String field" + i + " = \"string // with slashes " + i + "\";\n");
+                case 1 -> source.append(python
+                        ? "def compute_" + i + "(x): return x * " + i + " / 2\n"
+                        : "    int compute" + i + "(int x) { return x * " + i + " / 2; }\n");
+                case 2 -> source.append(python
+                        ? "# regular comment about todos list " + i + "\n"
+                        : "    /* regular comment about todos list " + i + " */\n");
+                default -> source.append(python
+                        ? "os.path.join('a', 'b" + i + "')\n"
+                        : "    // regular comment " + i + "\n");
+            }
+        }
+
+        if (!python) {
+            source.append("}\n");
+        }
+        return source.toString();
+    }
+
+    public static Path write(Path dir, String language, String name, int lines, double todoDensity, long seed)
+            throws IOException {
+        Path file = dir.resolve(name + extension(language));
+        Files.writeString(file, generate(language, name, lines, todoDensity, seed));
+        return file;
+    }
+
+    public static void delete(Path dir) throws IOException {
+        if (dir == null || !Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -1,14 +1,23 @@
 package ru.itis.todo;
 
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import ru.itis.todo.api.IssueCreator;
 import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.github.GitHubIssueCreator;
+import ru.itis.todo.github.GraphQlIssueCreator;
+import ru.itis.todo.local.LocalIssueCreator;
+import ru.itis.todo.metrics.TodoMetrics;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
 @SpringBootApplication
+@ImportRuntimeHints(TodoRuntimeHints.class)
 public class TodoIssueCreatorApplication {
     public static void main(String[] args) {
         SpringApplication.run(TodoIssueCreatorApplication.class, args);
@@ -24,4 +33,19 @@ public class TodoIssueCreatorApplication {
             return new TodoConfig();
         }
     }
-} 
\ No newline at end of file
+
+    @Bean
+    public PrometheusMeterRegistry meterRegistry() {
+        // Один реестр и для сводки --metrics, и для /actuator/prometheus в режиме --watch
+        return new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    }
+
+    @Bean
+    public IssueCreator issueCreator(TodoConfig todoConfig, TodoMetrics metrics) {
+        return switch (todoConfig.getGithub().getApi()) {
+            case REST -> new GitHubIssueCreator(todoConfig, metrics);
+            case GRAPHQL -> new GraphQlIssueCreator(todoConfig, metrics);
+            case LOCAL -> new LocalIssueCreator(todoConfig, metrics);
+        };
+    }
+}
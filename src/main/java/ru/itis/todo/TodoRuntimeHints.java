@@ -0,0 +1,48 @@
+package ru.itis.todo;
+
+import org.eclipse.jgit.internal.JGitText;
+import org.kohsuke.github.GHObject;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import ru.itis.todo.api.TodoConfig;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+public class TodoRuntimeHints implements RuntimeHintsRegistrar {
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // SnakeYAML заполняет конфигурацию через конструкторы без аргументов и сеттеры
+        hints.reflection().registerType(TodoConfig.class, MemberCategory.values());
+        for (Class<?> nested : TodoConfig.class.getDeclaredClasses()) {
+            hints.reflection().registerType(nested, MemberCategory.values());
+        }
+        hints.resources().registerPattern(".todo-to-issue.yaml");
+
+        // github-api разбирает ответы Jackson-ом в поля модельных классов GH*, включая вложенные и базовые
+        try {
+            // В jar github-api нет записей для каталогов, поэтому classpath*: не находит пакет - ищем рядом с известным классом
+            String anchor = GHObject.class.getResource("GHObject.class").toString();
+            String pattern = anchor.substring(0, anchor.lastIndexOf('/') + 1) + "GH*.class";
+            for (Resource resource : new PathMatchingResourcePatternResolver(classLoader).getResources(pattern)) {
+                String name = resource.getFilename();
+                hints.reflection().registerType(
+                        TypeReference.of("org.kohsuke.github." + name.substring(0, name.length() - ".class".length())),
+                        MemberCategory.values());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (String base : new String[]{"GitHubInteractiveObject", "JsonRateLimit", "GitUser"}) {
+            hints.reflection().registerType(TypeReference.of("org.kohsuke.github." + base), MemberCategory.values());
+        }
+
+        // Сообщения JGit загружаются из бандла в публичные поля через рефлексию
+        hints.reflection().registerType(JGitText.class, MemberCategory.PUBLIC_FIELDS, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        hints.resources().registerResourceBundle(JGitText.class.getName());
+    }
+}
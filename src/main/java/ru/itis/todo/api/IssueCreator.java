@@ -1,5 +1,8 @@
 package ru.itis.todo.api;
 
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncSummary;
+
 import java.util.List;
 
 public interface IssueCreator {
@@ -7,4 +10,7 @@ public interface IssueCreator {
     int createIssues(List<TodoItem> items, boolean dryRun);
 
     boolean issueExists(TodoItem item);
-} 
\ No newline at end of file
+
+    // Приводит issues инструмента к результату сканирования: создаёт, обновляет, закрывает и переоткрывает
+    SyncSummary sync(ScanSnapshot snapshot, boolean dryRun);
+}
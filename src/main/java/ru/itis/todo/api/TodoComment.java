@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 @Data
@@ -19,10 +20,41 @@ public class TodoComment {
     private Map<String, String> additionalFields;
 
     public enum Priority {
-        LOW, MEDIUM, HIGH
+        LOW, MEDIUM, HIGH;
+
+        // Строковое значение в TodoItem: одна константа на все TODO с этим приоритетом
+        private final String label = name().toLowerCase(Locale.ROOT);
+
+        public String label() {
+            return label;
+        }
+
+        public static Priority fromLabel(String value) {
+            for (Priority priority : values()) {
+                if (priority.label.equalsIgnoreCase(value)) {
+                    return priority;
+                }
+            }
+            return null;
+        }
     }
 
     public enum Category {
-        BUG, FEATURE, REFACTOR
+        BUG, FEATURE, REFACTOR;
+
+        private final String label = name().toLowerCase(Locale.ROOT);
+
+        public String label() {
+            return label;
+        }
+
+        public static Category fromLabel(String value) {
+            for (Category category : values()) {
+                if (category.label.equalsIgnoreCase(value)) {
+                    return category;
+                }
+            }
+            return null;
+        }
     }
 } 
\ No newline at end of file
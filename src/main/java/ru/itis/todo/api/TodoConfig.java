@@ -11,15 +11,43 @@ import java.util.Map;
 
 @Data
 public class TodoConfig {
-    private GitHubConfig github;
+    private GitHubConfig github = new GitHubConfig();
     private DefaultsConfig defaults;
     private FiltersConfig filters;
     private IssueTemplateConfig issueTemplate;
+    private GitConfig git = new GitConfig();
+    private ParsersConfig parsers = new ParsersConfig();
+    private LocalConfig local = new LocalConfig();
+    private List<String> markers = List.of("TODO");
 
     @Data
     public static class GitHubConfig {
         private String repo;
         private String token;
+        private String label = "todo";
+        // Исполнитель для TODO, чей @исполнитель не может быть назначен в репозитории; без него такие TODO без исполнителя
+        private String defaultAssignee;
+        private String apiUrl = "https://api.github.com";
+        private int concurrency = 4;
+        private int requestsPerMinute = 60;
+        private int maxAttempts = 5;
+        private long retryBackoffMillis = 1000;
+        private GitHubApi api = GitHubApi.REST;
+        // Число createIssue в одном GraphQL-запросе
+        private int batchSize = 20;
+    }
+
+    // Хранилище для github.api: LOCAL - прогоны без сети и нагрузочные тесты сверки
+    @Data
+    public static class LocalConfig {
+        // Каталог с журналом issues.jsonl и индексом issues.idx
+        private String path = ".todo-issues";
+        // 0 - без ограничения; параллельность и повторы берутся из github.concurrency и github.maxAttempts
+        private int requestsPerMinute;
+        // Искусственная задержка каждой операции, как у запроса к API
+        private long latencyMillis;
+        // Доля операций, завершающихся ошибкой 502 (её повторяет планировщик)
+        private double failureRate;
     }
 
     @Data
@@ -32,6 +60,7 @@ public class TodoConfig {
     public static class FiltersConfig {
         private List<String> include;
         private List<String> exclude;
+        private boolean gitignore;
     }
 
     @Data
@@ -41,6 +70,34 @@ public class TodoConfig {
         private List<String> labels;
     }
 
+    @Data
+    public static class GitConfig {
+        private int depth = 1;
+        private String branch;
+        private boolean sparse;
+    }
+
+    @Data
+    public static class ParsersConfig {
+        private JavaParserMode java = JavaParserMode.LEXER;
+    }
+
+    public enum JavaParserMode {
+        // Потоковый разбор комментариев без построения AST
+        LEXER,
+        // Полный разбор через JavaParser: файлы с синтаксическими ошибками пропускаются
+        AST
+    }
+
+    public enum GitHubApi {
+        // Отдельный POST /repos/{repo}/issues на каждый TODO
+        REST,
+        // Пачки createIssue с псевдонимами в одном запросе к /graphql
+        GRAPHQL,
+        // Без GitHub: issues пишутся в локальное хранилище local.path
+        LOCAL
+    }
+
     public static TodoConfig fromYaml(Path configPath) throws IOException {
         try (FileInputStream fis = new FileInputStream(configPath.toFile())) {
             Yaml yaml = new Yaml();
@@ -3,7 +3,13 @@ package ru.itis.todo.api;
 import lombok.Builder;
 import lombok.Data;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
 
 @Data
 @Builder
@@ -15,7 +21,21 @@ public class TodoItem {
     private String category;
     private String assignee;
     private String[] tags;
+    private String marker;
     
     public static final String DEFAULT_PRIORITY = "medium";
     public static final String DEFAULT_CATEGORY = "feature";
+
+    public String fingerprint() {
+        // Номер строки не входит в отпечаток, чтобы перенос TODO не порождал новую задачу
+        String path = filePath.toString().replace(File.separatorChar, '/');
+        String normalized = description.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest((path + "\n" + normalized).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 } 
\ No newline at end of file
@@ -1,11 +1,41 @@
 package ru.itis.todo.api;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface TodoParser {
 
-    List<TodoItem> parseFile(Path filePath);
+    void parse(Path filePath, Consumer<TodoItem> consumer);
 
-    boolean supportsFile(Path filePath);
+    default List<TodoItem> parseFile(Path filePath) {
+        List<TodoItem> items = new ArrayList<>();
+        parse(filePath, items::add);
+        return items;
+    }
+
+    // Расширения без точки в нижнем регистре, например "java"
+    Set<String> getExtensions();
+
+    // Интерпретаторы из строки "#!" для файлов без расширения, например "python"
+    default Set<String> getInterpreters() {
+        return Set.of();
+    }
+
+    default boolean supportsFile(Path filePath) {
+        String name = filePath.toString();
+        for (String extension : getExtensions()) {
+            int dot = name.length() - extension.length() - 1;
+            if (dot >= 0 && name.charAt(dot) == '.' && name.regionMatches(true, dot + 1, extension, 0, extension.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    default String getVersion() {
+        return getClass().getName();
+    }
 } 
\ No newline at end of file
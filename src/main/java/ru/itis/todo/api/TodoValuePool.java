@@ -0,0 +1,75 @@
+package ru.itis.todo.api;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Общие экземпляры повторяющихся значений TodoItem: на больших репозиториях копии строк и массивов меток
+// занимают больше памяти, чем сами описания задач
+public final class TodoValuePool {
+    // Защита от неограниченного роста в режиме --watch: сверх лимита значения просто не кэшируются
+    private static final int MAX_SIZE = 1 << 16;
+    private static final String[] NO_TAGS = new String[0];
+
+    private static final Map<String, String> STRINGS = new ConcurrentHashMap<>();
+    private static final Map<List<String>, String[]> TAGS = new ConcurrentHashMap<>();
+
+    private TodoValuePool() {
+    }
+
+    public static String priority(String value) {
+        if (value == null) {
+            return null;
+        }
+        TodoComment.Priority priority = TodoComment.Priority.fromLabel(value);
+        return priority != null ? priority.label() : intern(value.toLowerCase(Locale.ROOT));
+    }
+
+    public static String category(String value) {
+        if (value == null) {
+            return null;
+        }
+        TodoComment.Category category = TodoComment.Category.fromLabel(value);
+        return category != null ? category.label() : intern(value.toLowerCase(Locale.ROOT));
+    }
+
+    public static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = STRINGS.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (STRINGS.size() >= MAX_SIZE) {
+            return value;
+        }
+        pooled = STRINGS.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
+    // Возвращаемый массив общий для всех TODO с теми же метками и не должен изменяться
+    public static String[] tags(String[] values) {
+        if (values == null) {
+            return null;
+        }
+        if (values.length == 0) {
+            return NO_TAGS;
+        }
+        List<String> key = Arrays.asList(values);
+        String[] pooled = TAGS.get(key);
+        if (pooled != null) {
+            return pooled;
+        }
+        for (int i = 0; i < values.length; i++) {
+            values[i] = intern(values[i]);
+        }
+        if (TAGS.size() >= MAX_SIZE) {
+            return values;
+        }
+        pooled = TAGS.putIfAbsent(key, values);
+        return pooled != null ? pooled : values;
+    }
+}
@@ -15,10 +15,27 @@ public class TodoCliCommand {
     private String repo;
     private boolean dryRun;
     private Path sourceDir;
+    private boolean workingTree;
     private boolean verbose;
+    private int threads;
+    private boolean noCache;
+    private boolean rebuildCache;
+    private Path cacheDir;
+    private String since;
+    private boolean watch;
+    private long debounceMillis;
+    // null - --shard не указан
+    private Integer shardIndex;
+    private Integer shardCount;
+    private Path output;
+    private Path metricsFile;
+    private Integer metricsPort;
 
     @SneakyThrows
     public static TodoCliCommand fromArgs(ApplicationArguments args) {
+        int[] shard = args.containsOption("shard")
+                ? parseShard(args.getOptionValues("shard").get(0))
+                : null;
         return TodoCliCommand.builder()
                 .configPath(args.containsOption("config") 
                         ? Path.of(args.getOptionValues("config").get(0))
@@ -30,18 +47,69 @@ public class TodoCliCommand {
                 .sourceDir(args.containsOption("source") 
                         ? Path.of(args.getOptionValues("source").get(0))
                         : Path.of("."))
+                .workingTree(args.containsOption("source"))
                 .verbose(args.containsOption("verbose"))
+                .threads(args.containsOption("threads")
+                        ? Integer.parseInt(args.getOptionValues("threads").get(0))
+                        : Runtime.getRuntime().availableProcessors())
+                .noCache(args.containsOption("no-cache"))
+                .rebuildCache(args.containsOption("rebuild-cache"))
+                .cacheDir(args.containsOption("cache-dir")
+                        ? Path.of(args.getOptionValues("cache-dir").get(0))
+                        : null)
+                .since(args.containsOption("since")
+                        ? args.getOptionValues("since").get(0)
+                        : null)
+                .watch(args.containsOption("watch"))
+                .debounceMillis(args.containsOption("debounce")
+                        ? Long.parseLong(args.getOptionValues("debounce").get(0))
+                        : 1000)
+                .shardIndex(shard != null ? shard[0] : null)
+                .shardCount(shard != null ? shard[1] : null)
+                .output(args.containsOption("output")
+                        ? Path.of(args.getOptionValues("output").get(0))
+                        : null)
+                .metricsFile(args.containsOption("metrics")
+                        ? Path.of(args.getOptionValues("metrics").get(0))
+                        : null)
+                .metricsPort(args.containsOption("metrics-port")
+                        ? Integer.valueOf(args.getOptionValues("metrics-port").get(0))
+                        : null)
                 .build();
     }
 
+    private static int[] parseShard(String value) {
+        int slash = value.indexOf('/');
+        try {
+            return new int[]{Integer.parseInt(value.substring(0, slash).trim()),
+                    Integer.parseInt(value.substring(slash + 1).trim())};
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid --shard value '" + value + "', expected i/N", e);
+        }
+    }
+
     public static void printHelp() {
         System.out.println("Использование: todo-issue-creator [опции]");
+        System.out.println("               todo-issue-creator merge <файл>... [--repo <repo>] [--dry-run]");
         System.out.println("Опции:");
         System.out.println("  --config <путь>    Путь к файлу конфигурации (по умолчанию: .todo-to-issue.yaml)");
         System.out.println("  --repo <repo>      Репозиторий GitHub (например: username/repository)");
         System.out.println("  --dry-run          Показать, что будет создано, без реального создания issues");
-        System.out.println("  --source <путь>    Путь к исходному коду (по умолчанию: текущая директория)");
+        System.out.println("  --source <путь>    Сканировать существующую рабочую копию вместо клонирования репозитория");
         System.out.println("  --verbose          Подробный вывод");
+        System.out.println("  --threads <n>      Число потоков сканирования, 1 - последовательный режим (по умолчанию: число ядер)");
+        System.out.println("  --no-cache         Не использовать кэш сканирования (.todo-scan-cache)");
+        System.out.println("  --rebuild-cache    Пересобрать кэш сканирования заново");
+        System.out.println("  --cache-dir <путь> Каталог кэша сканирования (по умолчанию: --source или текущий каталог для клона)");
+        System.out.println("  --since <коммит>   Сканировать только файлы, изменённые после указанного коммита");
+        System.out.println("  --watch            Следить за изменениями в --source и создавать issues для новых TODO");
+        System.out.println("  --debounce <мс>    Пауза без изменений перед синхронизацией в режиме --watch (по умолчанию: 1000)");
+        System.out.println("  --shard <i/N>      Сканировать только i-ю из N частей файлов (для параллельных узлов CI)");
+        System.out.println("  --output <файл>    Записать результат сканирования в файл вместо создания issues");
+        System.out.println("  --metrics <файл>   Записать сводку метрик (время этапов, файлы, запросы к GitHub) в JSON");
+        System.out.println("  --metrics-port <n> Открыть /actuator/prometheus на указанном порту (только с --watch)");
         System.out.println("  --help             Показать эту справку");
+        System.out.println("Команды:");
+        System.out.println("  merge <файл>...    Объединить результаты шардов (--output) и создать issues одной синхронизацией");
     }
 } 
\ No newline at end of file
@@ -7,22 +7,36 @@ import org.springframework.stereotype.Component;
 import ru.itis.todo.api.IssueCreator;
 import ru.itis.todo.api.TodoConfig;
 import ru.itis.todo.api.TodoItem;
-import ru.itis.todo.api.TodoParser;
 import ru.itis.todo.git.GitService;
+import ru.itis.todo.metrics.PrometheusEndpoint;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.scan.DiffScanResult;
+import ru.itis.todo.scan.Shard;
+import ru.itis.todo.scan.ShardResult;
+import ru.itis.todo.scan.TodoScanner;
+import ru.itis.todo.scan.TodoWatcher;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncOperation;
+import ru.itis.todo.sync.SyncSummary;
 
-import java.nio.file.Files;
+import java.io.Closeable;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
+import java.util.Set;
+import java.util.TreeSet;
 
 @Component
 @RequiredArgsConstructor
 public class TodoCliRunner implements ApplicationRunner {
-    private final List<TodoParser> parsers;
+    private final TodoScanner todoScanner;
     private final IssueCreator issueCreator;
     private final GitService gitService;
     private final TodoConfig config;
+    private final TodoWatcher todoWatcher;
+    private final TodoMetrics metrics;
+    private final PrometheusEndpoint prometheusEndpoint;
 
     @Override
     public void run(ApplicationArguments args) throws Exception {
@@ -32,55 +46,183 @@ public class TodoCliRunner implements ApplicationRunner {
         }
 
         TodoCliCommand command = TodoCliCommand.fromArgs(args);
+        if (command.getMetricsPort() != null && !command.isWatch()) {
+            System.err.println("--metrics-port работает только в режиме --watch, для разового запуска укажите --metrics <файл>");
+        }
+
+        try {
+            execute(args, command);
+        } finally {
+            // Сводка пишется и при ошибке: по ней видно, на каком этапе ушло время
+            if (command.getMetricsFile() != null) {
+                try {
+                    metrics.writeSummary(command.getMetricsFile());
+                    if (command.isVerbose()) {
+                        System.out.println("Метрики записаны в " + command.getMetricsFile());
+                    }
+                } catch (IOException e) {
+                    System.err.println("Не удалось записать метрики: " + e.getMessage());
+                }
+            }
+        }
+    }
 
+    private void execute(ApplicationArguments args, TodoCliCommand command) throws Exception {
         if (command.getRepo() != null) {
             config.getGithub().setRepo(command.getRepo());
         }
 
-        Path sourceDir = gitService.cloneRepository();
-        if (command.isVerbose()) {
-            System.out.println("Клонирован репозиторий: " + config.getGithub().getRepo());
+        if (!args.getNonOptionArgs().isEmpty() && args.getNonOptionArgs().get(0).equals("merge")) {
+            merge(args.getNonOptionArgs().subList(1, args.getNonOptionArgs().size()), command);
+            return;
         }
 
-        List<TodoItem> items = new ArrayList<>();
-
-        try (Stream<Path> paths = Files.walk(sourceDir)) {
-            paths.filter(Files::isRegularFile)
-                .forEach(path -> {
-                    TodoParser parser = parsers.stream()
-                        .filter(p -> p.supportsFile(path))
-                        .findFirst()
-                        .orElse(null);
+        Shard shard = Shard.of(command);
+        if (shard != Shard.ALL && command.getOutput() == null) {
+            // Issues создаёт только шаг merge, иначе узлы CI синхронизировались бы наперегонки
+            System.err.println("Для --shard укажите --output <файл> и объедините результаты командой merge");
+            return;
+        }
 
-                    if (parser != null) {
-                        if (command.isVerbose()) {
-                            System.out.println("Обрабатываем файл: " + path);
-                        }
-                        items.addAll(parser.parseFile(path));
-                    }
-                });
+        if (command.isWatch() && (!command.isWorkingTree() || shard != Shard.ALL)) {
+            System.err.println("Режим --watch работает только с рабочей копией без --shard, укажите --source <путь>");
+            return;
         }
 
-        if (items.isEmpty()) {
-            System.out.println("TODO комментарии не найдены");
+        // Каталоги от упавших запусков удаляются в фоне и не задерживают сканирование
+        Thread.ofVirtual().name("todo-sweep").start(gitService::sweepStaleClones);
+
+        try {
+            scanAndSync(command, shard);
+        } finally {
+            // Для рабочей копии ничего не делает, для клона дожидается фонового удаления и сообщает об ошибках
             gitService.cleanup();
+        }
+    }
+
+    private void scanAndSync(TodoCliCommand command, Shard shard) throws Exception {
+        Path sourceDir;
+        if (command.isWorkingTree()) {
+            sourceDir = gitService.useWorkingTree(command.getSourceDir());
+            if (command.isVerbose()) {
+                System.out.println("Используем рабочую копию: " + sourceDir);
+            }
+        } else {
+            // Для --since нужна история до указанного коммита, поэтому shallow-клонирование отключается
+            sourceDir = gitService.cloneRepository(command.getSince() != null);
+            if (command.isVerbose()) {
+                System.out.printf("Клонирован репозиторий: %s за %d мс, получено %d байт%n",
+                        config.getGithub().getRepo(),
+                        gitService.getCloneTime().toMillis(),
+                        gitService.getTransferredBytes());
+            }
+        }
+
+        if (command.isWatch()) {
+            // Процесс не завершается: парсеры и JIT остаются прогретыми между правками
+            try (Closeable endpoint = command.getMetricsPort() != null
+                    ? prometheusEndpoint.start(command.getMetricsPort())
+                    : null) {
+                if (endpoint != null) {
+                    System.out.printf("Метрики Prometheus: http://localhost:%d%s%n",
+                            command.getMetricsPort(), PrometheusEndpoint.PATH);
+                }
+                todoWatcher.watch(sourceDir, command);
+            }
+            return;
+        }
+
+        List<TodoItem> items;
+        List<TodoItem> removed = List.of();
+        if (command.getSince() != null) {
+            DiffScanResult result = todoScanner.scanChanges(sourceDir, gitService.diff(command.getSince()), command);
+            items = result.getItems();
+            removed = result.getRemoved();
+            printRemoved(removed);
+        } else {
+            items = todoScanner.scan(sourceDir, command);
+        }
+        // Клон больше не нужен: удаление идёт параллельно с записью результата и созданием issues
+        gitService.cleanupAsync();
+
+        if (command.getOutput() != null) {
+            ShardResult.of(shard, command.getSince() == null, items, removed).write(command.getOutput());
+            System.out.printf("Найдено %d TODO комментариев (шард %s), результат записан в %s%n",
+                    items.size(), shard, command.getOutput());
+            return;
+        }
+
+        sync(command.getSince() != null ? ScanSnapshot.partial(items, removed) : ScanSnapshot.full(items), command);
+    }
+
+    private void merge(List<String> files, TodoCliCommand command) throws IOException {
+        if (files.isEmpty()) {
+            System.err.println("Укажите файлы с результатами шардов: merge <файл>...");
             return;
         }
 
-        System.out.printf("Найдено %d TODO комментариев%n", items.size());
-        
+        List<ShardResult> results = new ArrayList<>();
+        Set<Integer> shards = new TreeSet<>();
+        for (String file : files) {
+            ShardResult result = ShardResult.read(Path.of(file));
+            results.add(result);
+            shards.add(result.getShard().index());
+            if (command.isVerbose()) {
+                System.out.printf("Шард %s: %d TODO комментариев (%s)%n", result.getShard(), result.getItems().size(), file);
+            }
+        }
+        ShardResult merged = ShardResult.merge(results);
+
+        int count = results.get(0).getShard().count();
+        if (shards.size() < count) {
+            // Упавший узел CI не должен блокировать остальные, но пропуск нужно видеть
+            List<String> missing = new ArrayList<>();
+            for (int i = 1; i <= count; i++) {
+                if (!shards.contains(i)) {
+                    missing.add(i + "/" + count);
+                }
+            }
+            System.err.println("Нет результатов шардов: " + String.join(", ", missing));
+        }
+
+        printRemoved(merged.getRemovedList());
+        // Без результатов части шардов их TODO выглядели бы удалёнными: закрываются только явно удалённые
+        sync(merged.isComplete() && shards.size() == count
+                ? ScanSnapshot.full(merged.getItemList())
+                : ScanSnapshot.partial(merged.getItemList(), merged.getRemovedList()), command);
+    }
+
+    private void sync(ScanSnapshot snapshot, TodoCliCommand command) {
+        if (snapshot.items().isEmpty()) {
+            System.out.println("TODO комментарии не найдены");
+            // Без новых TODO сверка всё равно нужна: issues удалённых TODO закрываются
+            if (command.isDryRun() || (!snapshot.complete() && snapshot.removed().isEmpty())) {
+                return;
+            }
+        } else {
+            System.out.printf("Найдено %d TODO комментариев%n", snapshot.items().size());
+        }
+
         if (command.isDryRun()) {
             System.out.println("\nРежим dry-run - показываем, что будет создано:");
         }
 
-        int created = issueCreator.createIssues(items, command.isDryRun());
-
-        gitService.cleanup();
+        SyncSummary summary = issueCreator.sync(snapshot, command.isDryRun());
 
         if (command.isDryRun()) {
-            System.out.printf("%nБудет создано %d issues%n", created);
+            System.out.printf("%nБудет создано %d issues%n", summary.get(SyncOperation.Type.CREATE));
         } else {
-            System.out.printf("Создано %d issues%n", created);
+            System.out.printf("Issues: %s%n", summary);
+        }
+    }
+
+    private void printRemoved(List<TodoItem> removed) {
+        if (removed.isEmpty()) {
+            return;
+        }
+        System.out.printf("Удалено %d TODO комментариев, их issues будут закрыты:%n", removed.size());
+        for (TodoItem item : removed) {
+            System.out.printf("  - %s (%s:%d)%n", item.getDescription(), item.getFilePath(), item.getLineNumber());
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
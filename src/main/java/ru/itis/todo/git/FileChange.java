@@ -0,0 +1,25 @@
+package ru.itis.todo.git;
+
+import lombok.Builder;
+import lombok.Data;
+import org.eclipse.jgit.diff.Edit;
+
+import java.util.List;
+
+@Data
+@Builder
+public class FileChange {
+    private String path;
+    private String oldPath;
+    private List<Edit> edits;
+    private byte[] oldContent;
+
+    public boolean hasDeletions() {
+        return oldContent != null && edits.stream().anyMatch(edit -> edit.getLengthA() > 0);
+    }
+
+    public boolean isDeletedLine(int lineNumber) {
+        int index = lineNumber - 1;
+        return edits.stream().anyMatch(edit -> index >= edit.getBeginA() && index < edit.getEndA());
+    }
+}
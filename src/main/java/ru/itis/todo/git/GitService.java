@@ -1,23 +1,89 @@
 package ru.itis.todo.git;
 
 import lombok.RequiredArgsConstructor;
+import org.eclipse.jgit.api.CloneCommand;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
+import org.eclipse.jgit.diff.Edit;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.treewalk.TreeWalk;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
 import org.springframework.stereotype.Service;
 import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.scan.PathFilter;
 
-import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class GitService {
+    static final String TEMP_PREFIX = "todo-scanner-";
+    static final String LOCK_FILE = ".lock";
+    // Свежий каталог мог только что создать параллельный запуск, ещё не успевший взять блокировку
+    private static final Duration MIN_STALE_AGE = Duration.ofMinutes(1);
+    // Каталоги без файла блокировки (процесс упал сразу после создания) удаляются с большим запасом
+    private static final Duration UNLOCKED_STALE_AGE = Duration.ofHours(1);
+    private static final int REPORTED_FAILURES = 5;
+
     private final TodoConfig config;
+    private final TodoMetrics metrics;
     private Path repoPath;
+    private boolean temporary;
+    private Path tempRoot;
+    private FileChannel lockChannel;
+    private Thread shutdownHook;
+    private CompletableFuture<DeleteResult> cleanupTask;
+    private Duration cloneTime = Duration.ZERO;
+    private long transferredBytes;
+
+    public Path useWorkingTree(Path sourceDir) {
+        if (!Files.isDirectory(sourceDir)) {
+            throw new IllegalArgumentException("Source directory does not exist: " + sourceDir);
+        }
+        repoPath = sourceDir.toAbsolutePath().normalize();
+        temporary = false;
+        return repoPath;
+    }
 
     public Path cloneRepository() throws IOException, GitAPIException {
+        return cloneRepository(false);
+    }
+
+    public Path cloneRepository(boolean fullHistory) throws IOException, GitAPIException {
         if (repoPath != null && Files.exists(repoPath)) {
             return repoPath;
         }
@@ -27,34 +93,320 @@ public class GitService {
             throw new IllegalStateException("Repository is not specified in the configuration");
         }
 
-        repoPath = Files.createTempDirectory("todo-scanner-");
-        
+        TodoConfig.GitConfig gitConfig = config.getGit() != null ? config.getGit() : new TodoConfig.GitConfig();
         String repoUrl = String.format("https://github.com/%s.git", repo);
-        Git.cloneRepository()
+        String branch = gitConfig.getBranch() != null
+                ? (gitConfig.getBranch().startsWith(Constants.R_REFS) ? gitConfig.getBranch() : Constants.R_HEADS + gitConfig.getBranch())
+                : resolveDefaultBranch(repoUrl);
+
+        long started = System.nanoTime();
+        createTempRoot();
+        repoPath = tempRoot.resolve("repo");
+        temporary = true;
+
+        CloneCommand clone = Git.cloneRepository()
                 .setURI(repoUrl)
                 .setDirectory(repoPath.toFile())
-                .call();
+                .setNoTags()
+                .setNoCheckout(gitConfig.isSparse());
+        if (branch != null) {
+            clone.setBranch(branch)
+                    .setBranchesToClone(List.of(branch));
+        }
+        if (!fullHistory && gitConfig.getDepth() > 0) {
+            clone.setDepth(gitConfig.getDepth());
+        }
 
+        try (Git git = clone.call()) {
+            if (gitConfig.isSparse()) {
+                checkoutSparse(git.getRepository(), PathFilter.of(config.getFilters()));
+            }
+        }
+
+        cloneTime = Duration.ofNanos(System.nanoTime() - started);
+        transferredBytes = directorySize(repoPath.resolve(Constants.DOT_GIT).resolve(Constants.OBJECTS));
+        metrics.timer(TodoMetrics.GIT_CLONE, "sparse", String.valueOf(gitConfig.isSparse())).record(cloneTime);
+        metrics.bytes(TodoMetrics.GIT_CLONE_BYTES).increment(transferredBytes);
         return repoPath;
     }
 
+    public Duration getCloneTime() {
+        return cloneTime;
+    }
+
+    public long getTransferredBytes() {
+        return transferredBytes;
+    }
+
+    private String resolveDefaultBranch(String repoUrl) throws GitAPIException {
+        Map<String, Ref> refs = Git.lsRemoteRepository()
+                .setRemote(repoUrl)
+                .callAsMap();
+        Ref head = refs.get(Constants.HEAD);
+        if (head == null) {
+            return null;
+        }
+        if (head.isSymbolic()) {
+            return head.getTarget().getName();
+        }
+        return refs.values().stream()
+                .filter(ref -> ref.getName().startsWith(Constants.R_HEADS))
+                .filter(ref -> head.getObjectId().equals(ref.getObjectId()))
+                .map(Ref::getName)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void checkoutSparse(Repository repository, PathFilter filter) throws IOException {
+        ObjectId tree = repository.resolve(Constants.HEAD + "^{tree}");
+        if (tree == null) {
+            return;
+        }
+        try (TreeWalk walk = new TreeWalk(repository)) {
+            walk.addTree(tree);
+            while (walk.next()) {
+                if (walk.isSubtree()) {
+                    // Исключённые каталоги не обходятся, как и при сканировании рабочей копии
+                    if (filter.acceptsDirectory(Path.of(walk.getPathString()))) {
+                        walk.enterSubtree();
+                    }
+                    continue;
+                }
+                FileMode mode = walk.getFileMode(0);
+                if ((mode != FileMode.REGULAR_FILE && mode != FileMode.EXECUTABLE_FILE)
+                        || !filter.accepts(Path.of(walk.getPathString()))) {
+                    continue;
+                }
+                Path target = repoPath.resolve(walk.getPathString());
+                Files.createDirectories(target.getParent());
+                try (OutputStream out = Files.newOutputStream(target)) {
+                    repository.open(walk.getObjectId(0)).copyTo(out);
+                }
+            }
+        }
+    }
+
+    private static long directorySize(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .mapToLong(file -> file.toFile().length())
+                    .sum();
+        }
+    }
+
+    public List<FileChange> diff(String since) throws IOException {
+        if (repoPath == null) {
+            throw new IllegalStateException("Repository is not cloned");
+        }
+
+        try (Git git = Git.open(repoPath.toFile());
+             DiffFormatter formatter = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            Repository repository = git.getRepository();
+            ObjectId oldTree = repository.resolve(since + "^{tree}");
+            if (oldTree == null) {
+                throw new IllegalArgumentException("Commit not found: " + since);
+            }
+            ObjectId newTree = repository.resolve(Constants.HEAD + "^{tree}");
+
+            formatter.setRepository(repository);
+            formatter.setDetectRenames(true);
+
+            List<FileChange> changes = new ArrayList<>();
+            for (DiffEntry entry : formatter.scan(oldTree, newTree)) {
+                List<Edit> edits = formatter.toFileHeader(entry).toEditList();
+                boolean hasDeletions = edits.stream().anyMatch(edit -> edit.getLengthA() > 0);
+
+                changes.add(FileChange.builder()
+                        .path(entry.getChangeType() != DiffEntry.ChangeType.DELETE ? entry.getNewPath() : null)
+                        .oldPath(entry.getChangeType() != DiffEntry.ChangeType.ADD ? entry.getOldPath() : null)
+                        .edits(edits)
+                        .oldContent(hasDeletions
+                                ? repository.open(entry.getOldId().toObjectId()).getBytes()
+                                : null)
+                        .build());
+            }
+            return changes;
+        }
+    }
+
+    // Удаление запускается в фоне сразу после сканирования и идёт параллельно с созданием issues
+    public synchronized CompletableFuture<DeleteResult> cleanupAsync() {
+        if (cleanupTask == null) {
+            if (!temporary || tempRoot == null) {
+                return CompletableFuture.completedFuture(DeleteResult.EMPTY);
+            }
+            Path root = tempRoot;
+            cleanupTask = CompletableFuture.supplyAsync(() -> deleteTempRoot(root),
+                    task -> Thread.ofVirtual().name("todo-cleanup").start(task));
+        }
+        return cleanupTask;
+    }
+
     public void cleanup() {
-        if (repoPath != null && Files.exists(repoPath)) {
-            deleteDirectory(repoPath.toFile());
+        DeleteResult result = cleanupAsync().join();
+        if (result.hasFailures()) {
+            System.err.printf("Не удалось удалить %d объектов временного клона %s:%n", result.failed(), tempRoot);
+            result.errors().forEach(error -> System.err.println("  " + error));
         }
     }
 
-    private void deleteDirectory(File directory) {
-        File[] files = directory.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    deleteDirectory(file);
-                } else {
-                    file.delete();
+    // Каталоги todo-scanner-* от упавших запусков: блокировку их владельца уже никто не держит
+    public void sweepStaleClones() {
+        Path tempDir = Path.of(System.getProperty("java.io.tmpdir"));
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(tempDir, TEMP_PREFIX + "*")) {
+            for (Path directory : directories) {
+                if (directory.equals(tempRoot) || !Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)
+                        || !isAbandoned(directory)) {
+                    continue;
+                }
+                DeleteResult result = deleteTree(directory);
+                if (result.hasFailures()) {
+                    System.err.printf("Не удалось удалить оставшийся от прошлого запуска каталог %s: %s%n",
+                            directory, result.errors().get(0));
                 }
             }
+        } catch (IOException e) {
+            System.err.println("Не удалось проверить временные каталоги: " + e.getMessage());
+        }
+    }
+
+    private void createTempRoot() throws IOException {
+        tempRoot = Files.createTempDirectory(TEMP_PREFIX);
+        // Блокировка держится до удаления каталога: по ней другие запуски отличают живой клон от брошенного
+        lockChannel = FileChannel.open(tempRoot.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        lockChannel.lock();
+        shutdownHook = Thread.ofPlatform().name("todo-cleanup-hook").unstarted(this::cleanup);
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    private DeleteResult deleteTempRoot(Path root) {
+        long started = System.nanoTime();
+        try {
+            if (lockChannel != null) {
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            // Блокировка снимается и при закрытии процесса, удалению это не мешает
+        }
+        DeleteResult result = deleteTree(root);
+        metrics.timer(TodoMetrics.GIT_CLEANUP).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        removeShutdownHook();
+        return result;
+    }
+
+    private synchronized void removeShutdownHook() {
+        if (shutdownHook == null || Thread.currentThread() == shutdownHook) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // JVM уже завершается, хук дождётся этой же задачи
+        }
+        shutdownHook = null;
+    }
+
+    static boolean isAbandoned(Path directory) throws IOException {
+        Duration age = Duration.between(Files.getLastModifiedTime(directory).toInstant(), Instant.now());
+        if (age.compareTo(MIN_STALE_AGE) < 0) {
+            return false;
+        }
+        Path lock = directory.resolve(LOCK_FILE);
+        if (!Files.exists(lock)) {
+            return age.compareTo(UNLOCKED_STALE_AGE) > 0;
+        }
+        try (FileChannel channel = FileChannel.open(lock, StandardOpenOption.WRITE);
+             FileLock fileLock = channel.tryLock()) {
+            return fileLock != null;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    static DeleteResult deleteTree(Path root) {
+        // Верхние каталоги (.git и части рабочей копии) удаляются параллельно, корень - после них
+        Queue<String> errors = new ConcurrentLinkedQueue<>();
+        AtomicInteger failed = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             DirectoryStream<Path> entries = Files.newDirectoryStream(root)) {
+            for (Path entry : entries) {
+                if (!entry.getFileName().toString().equals(LOCK_FILE)) {
+                    executor.submit(() -> walkAndDelete(entry, errors, failed));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return DeleteResult.EMPTY;
+        } catch (IOException e) {
+            record(root, e, errors, failed);
+        }
+        // Блокировка удаляется последней: прерванное удаление оставит каталог, который снова будет признан брошенным
+        delete(root.resolve(LOCK_FILE), errors, failed);
+        delete(root, errors, failed);
+        return new DeleteResult(failed.get(), List.copyOf(errors));
+    }
+
+    private static void walkAndDelete(Path start, Queue<String> errors, AtomicInteger failed) {
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    delete(file, errors, failed);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    record(file, e, errors, failed);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                    if (e != null) {
+                        record(dir, e, errors, failed);
+                    }
+                    delete(dir, errors, failed);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            record(start, e, errors, failed);
+        }
+    }
+
+    private static void delete(Path path, Queue<String> errors, AtomicInteger failed) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (AccessDeniedException e) {
+            // Pack-файлы JGit только для чтения, а в Windows такие файлы не удаляются без снятия атрибута
+            if (!path.toFile().setWritable(true)) {
+                record(path, e, errors, failed);
+                return;
+            }
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException retry) {
+                record(path, retry, errors, failed);
+            }
+        } catch (IOException e) {
+            record(path, e, errors, failed);
+        }
+    }
+
+    private static void record(Path path, IOException e, Queue<String> errors, AtomicInteger failed) {
+        if (failed.incrementAndGet() <= REPORTED_FAILURES) {
+            errors.add(path + ": " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName()));
+        }
+    }
+
+    public record DeleteResult(int failed, List<String> errors) {
+        static final DeleteResult EMPTY = new DeleteResult(0, List.of());
+
+        public boolean hasFailures() {
+            return failed > 0;
         }
-        directory.delete();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package ru.itis.todo.github;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class AdaptiveTokenBucket {
+    private final int capacity;
+    private final double baseRatePerNano;
+    private double ratePerNano;
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    public AdaptiveTokenBucket(int capacity, int requestsPerMinute) {
+        this.capacity = Math.max(1, capacity);
+        this.baseRatePerNano = requestsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.ratePerNano = baseRatePerNano;
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                refill(now);
+                if (now - pausedUntil < 0) {
+                    waitNanos = pausedUntil - now;
+                } else if (tokens >= 1) {
+                    tokens -= 1;
+                    return;
+                } else {
+                    waitNanos = (long) Math.ceil((1 - tokens) / ratePerNano);
+                }
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+        }
+    }
+
+    public synchronized void pauseFor(Duration duration) {
+        long until = System.nanoTime() + duration.toNanos();
+        if (until - pausedUntil > 0) {
+            pausedUntil = until;
+        }
+        tokens = 0;
+    }
+
+    public synchronized void onRateLimit(int remaining, long resetEpochSeconds) {
+        long untilReset = TimeUnit.SECONDS.toNanos(resetEpochSeconds) - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+        if (untilReset <= 0) {
+            ratePerNano = baseRatePerNano;
+            return;
+        }
+        if (remaining <= 0) {
+            pauseFor(Duration.ofNanos(untilReset));
+            return;
+        }
+        // Растягиваем оставшийся лимит до момента его сброса, но не быстрее базовой скорости
+        ratePerNano = Math.min(baseRatePerNano, remaining / (double) untilReset);
+    }
+
+    public synchronized int getRequestsPerMinute() {
+        return (int) Math.round(ratePerNano * TimeUnit.MINUTES.toNanos(1));
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * ratePerNano);
+        lastRefill = now;
+    }
+}
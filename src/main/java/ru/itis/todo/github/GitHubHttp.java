@@ -0,0 +1,67 @@
+package ru.itis.todo.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kohsuke.github.HttpException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+
+// Запросы к GitHub в обход github-api: GraphQL и PATCH issue одним запросом (в github-api каждое поле
+// меняется отдельным PATCH). Ответы о лимитах обрабатываются так же, как обработчики в GitHubIssueCreator
+public class GitHubHttp {
+    static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final String token;
+    private final AdaptiveTokenBucket tokenBucket;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+
+    public GitHubHttp(String token, AdaptiveTokenBucket tokenBucket) {
+        this.token = token;
+        this.tokenBucket = tokenBucket;
+    }
+
+    public record Response(JsonNode body, UnaryOperator<String> headers) {
+    }
+
+    public Response send(String method, URI uri, JsonNode body, String accept) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .header("Authorization", "bearer " + token)
+                .header("Content-Type", "application/json")
+                .header("Accept", accept != null ? accept : "application/vnd.github+json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("GitHub request interrupted");
+        }
+        UnaryOperator<String> headers = name -> response.headers().firstValue(name).orElse(null);
+
+        String remaining = headers.apply("X-RateLimit-Remaining");
+        String reset = headers.apply("X-RateLimit-Reset");
+        if (remaining != null && reset != null) {
+            tokenBucket.onRateLimit(Integer.parseInt(remaining.trim()), Long.parseLong(reset.trim()));
+        }
+
+        int status = response.statusCode();
+        if ((status == 403 || status == 429) && (headers.apply("Retry-After") != null || "0".equals(remaining))) {
+            throw RateLimitedException.fromHeaders(headers);
+        }
+        if (status < 200 || status >= 300) {
+            // HttpException с кодом ответа: планировщик повторяет 5xx и не повторяет прочие 4xx
+            throw new HttpException(new String(response.body()), status, null, uri.toString());
+        }
+        return new Response(response.body().length > 0 ? MAPPER.readTree(response.body()) : MAPPER.nullNode(), headers);
+    }
+}
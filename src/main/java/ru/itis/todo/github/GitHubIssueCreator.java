@@ -1,146 +1,274 @@
 package ru.itis.todo.github;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.kohsuke.github.GHIssue;
 import org.kohsuke.github.GHIssueBuilder;
+import org.kohsuke.github.GHLabel;
+import org.kohsuke.github.GHRateLimit;
 import org.kohsuke.github.GHRepository;
+import org.kohsuke.github.GHUser;
 import org.kohsuke.github.GitHub;
-import org.springframework.stereotype.Component;
+import org.kohsuke.github.GitHubAbuseLimitHandler;
+import org.kohsuke.github.GitHubBuilder;
+import org.kohsuke.github.GitHubRateLimitHandler;
+import org.kohsuke.github.RateLimitChecker;
+import org.kohsuke.github.connector.GitHubConnectorResponse;
 import ru.itis.todo.api.IssueCreator;
 import ru.itis.todo.api.TodoConfig;
 import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.IssueContent;
+import ru.itis.todo.sync.IssueReconciler;
+import ru.itis.todo.sync.ManagedIssue;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncOperation;
+import ru.itis.todo.sync.SyncSummary;
 
 import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+
+import static ru.itis.todo.github.GitHubHttp.MAPPER;
 
-@Component
-@RequiredArgsConstructor
 public class GitHubIssueCreator implements IssueCreator {
     private final TodoConfig config;
+    private final TodoMetrics metrics;
+    private final IssueFormatter formatter;
     private GitHub gitHub;
     private GHRepository repository;
+    private IssueIndex issueIndex;
+    private RepositoryCatalog catalog;
+
+    private AdaptiveTokenBucket tokenBucket;
+    private IssueSubmissionScheduler scheduler;
+    private GitHubHttp http;
+
+    public GitHubIssueCreator(TodoConfig config, TodoMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.formatter = new IssueFormatter(config);
+    }
 
     private void init() throws IOException {
+        TodoConfig.GitHubConfig github = config.getGithub();
         if (gitHub == null) {
-            gitHub = GitHub.connectUsingOAuth(config.getGithub().getToken());
-            String[] repoParts = config.getGithub().getRepo().split("/");
-            repository = gitHub.getRepository(config.getGithub().getRepo());
+            tokenBucket = new AdaptiveTokenBucket(github.getConcurrency(), github.getRequestsPerMinute());
+            scheduler = new IssueSubmissionScheduler(github.getConcurrency(), github.getMaxAttempts(),
+                    Duration.ofMillis(github.getRetryBackoffMillis()), tokenBucket, metrics);
+            http = new GitHubHttp(github.getToken(), tokenBucket);
+            gitHub = new GitHubBuilder()
+                    .withEndpoint(github.getApiUrl())
+                    .withOAuthToken(github.getToken())
+                    // Ожиданием лимитов управляет планировщик, а не github-api
+                    .withRateLimitChecker(new RateLimitChecker() {
+                        @Override
+                        protected boolean checkRateLimit(GHRateLimit.Record record, long count) {
+                            tokenBucket.onRateLimit(record.getRemaining(), record.getResetEpochSeconds());
+                            return false;
+                        }
+                    })
+                    .withRateLimitHandler(new GitHubRateLimitHandler() {
+                        @Override
+                        public void onError(GitHubConnectorResponse response) throws IOException {
+                            throw RateLimitedException.fromHeaders(response::header);
+                        }
+                    })
+                    .withAbuseLimitHandler(new GitHubAbuseLimitHandler() {
+                        @Override
+                        public void onError(GitHubConnectorResponse response) throws IOException {
+                            throw RateLimitedException.fromHeaders(response::header);
+                        }
+                    })
+                    .build();
+            repository = gitHub.getRepository(github.getRepo());
+        }
+        if (issueIndex == null) {
+            // Один постраничный запрос вместо поиска по каждому TODO
+            issueIndex = IssueIndex.load(repository, github.getLabel());
+        }
+        if (catalog == null) {
+            catalog = loadCatalog(github);
         }
     }
 
-    @Override
-    public int createIssues(List<TodoItem> items, boolean dryRun) {
-        int count = 0;
-        try {
-            if (!dryRun) {
-                init();
-            }
-
-            for (TodoItem item : items) {
-                if (!dryRun) {
-                    if (issueExists(item)) {
-                        continue;
-                    }
-                }
+    private RepositoryCatalog loadCatalog(TodoConfig.GitHubConfig github) throws IOException {
+        RepositoryCatalog catalog = new RepositoryCatalog(github.getDefaultAssignee());
+        for (GHLabel label : repository.listLabels().withPageSize(100)) {
+            catalog.addLabel(label.getName(), label.getName());
+        }
+        for (GHUser user : repository.listAssignees().withPageSize(100)) {
+            catalog.addAssignee(user.getLogin(), user.getLogin());
+        }
+        return catalog;
+    }
 
-                String title = formatTitle(item);
-                String body = formatBody(item);
-                List<String> labels = formatLabels(item);
-
-                if (dryRun) {
-                    System.out.println("\nIssue для создания:");
-                    System.out.println("Заголовок: " + title);
-                    System.out.println("Описание:\n" + body);
-                    System.out.println("Метки: " + String.join(", ", labels));
-                    if (item.getAssignee() != null) {
-                        System.out.println("Назначено: " + item.getAssignee());
-                    }
+    // Недостающие метки создаются до issues и через тот же планировщик, поэтому учитывают лимиты и повторы
+    private void provisionLabels(List<SyncOperation> operations) {
+        List<String> missing = catalog.missingLabels(operations);
+        if (!missing.isEmpty()) {
+            for (SubmissionResult<String, GHLabel> result : scheduler.submitAll(missing,
+                    name -> repository.createLabel(name, RepositoryCatalog.LABEL_COLOR), (label, done, total) -> { })) {
+                if (result.isSuccessful()) {
+                    catalog.addLabel(result.getValue().getName(), result.getValue().getName());
                 } else {
-                    GHIssueBuilder issueBuilder = repository.createIssue(title)
-                            .body(body);
-
-                    for (String label : labels) {
-                        issueBuilder = issueBuilder.label(label);
-                    }
+                    System.err.printf("Не удалось создать метку \"%s\", issues будут созданы без неё: %s%n",
+                            result.getItem(), result.getError().getMessage());
+                }
+            }
+        }
+        catalog.requireLabel(config.getGithub().getLabel());
+    }
 
-                    if (item.getAssignee() != null) {
-                        issueBuilder.assignee(item.getAssignee().substring(1));
-                    }
+    @Override
+    public int createIssues(List<TodoItem> items, boolean dryRun) {
+        if (dryRun) {
+            formatter.preview(items);
+            return items.size();
+        }
 
-                    issueBuilder.create();
-                }
-                count++;
+        initOrFail();
+        Map<String, SyncOperation> pending = new LinkedHashMap<>();
+        for (TodoItem item : items) {
+            String fingerprint = item.fingerprint();
+            if (!issueIndex.contains(fingerprint) && !pending.containsKey(fingerprint)) {
+                IssueContent content = formatter.content(item);
+                pending.put(fingerprint, new SyncOperation(SyncOperation.Type.CREATE, item, null,
+                        content.title(), content.markedBody(), content.labels()));
             }
-        } catch (IOException e) {
-            throw new RuntimeException("Ошибка при создании issues: " + e.getMessage(), e);
         }
-        return count;
+        return execute(new ArrayList<>(pending.values())).get(SyncOperation.Type.CREATE);
     }
 
     @Override
-    public boolean issueExists(TodoItem item) {
+    public SyncSummary sync(ScanSnapshot snapshot, boolean dryRun) {
+        if (dryRun) {
+            // Без обращения к GitHub план неизвестен: показываем все TODO как будущие issues
+            formatter.preview(snapshot.items());
+            return SyncSummary.created(snapshot.items().size());
+        }
+
+        initOrFail();
+        return execute(IssueReconciler.plan(snapshot, issueIndex.issues(), formatter::content));
+    }
+
+    private void initOrFail() {
         try {
             init();
-            String query = String.format("repo:%s \"%s\" in:title \"%s\" in:body",
-                    config.getGithub().getRepo(),
-                    formatTitle(item),
-                    item.getFilePath());
-            
-            return gitHub.searchIssues().q(query).list().iterator().hasNext();
         } catch (IOException e) {
-            return false;
+            throw new RuntimeException("Ошибка при создании issues: " + e.getMessage(), e);
         }
     }
 
-    private String formatTitle(TodoItem item) {
-        String template = config.getIssueTemplate().getTitle();
-        if (template == null) {
-            return item.getDescription();
+    private SyncSummary execute(List<SyncOperation> operations) {
+        SyncSummary summary = new SyncSummary();
+        if (operations.isEmpty()) {
+            return summary;
         }
-        return template
-                .replace("{description}", item.getDescription())
-                .replace("{category}", item.getCategory())
-                .replace("{priority}", item.getPriority());
+        provisionLabels(operations);
+
+        for (SubmissionResult<SyncOperation, ManagedIssue> result
+                : scheduler.submitAll(operations, this::submit, this::findApplied, this::reportProgress)) {
+            if (result.isSuccessful()) {
+                summary.completed(result.getItem().type());
+                metrics.syncOperation(result.getItem().type()).increment();
+            } else {
+                summary.failed();
+            }
+        }
+        if (summary.getFailed() > 0) {
+            System.err.printf("Не удалось выполнить %d операций с issues%n", summary.getFailed());
+        }
+        return summary;
+    }
+
+    private ManagedIssue submit(SyncOperation operation) throws IOException {
+        ManagedIssue issue = operation.type() == SyncOperation.Type.CREATE
+                ? createIssue(operation)
+                : updateIssue(operation);
+        issueIndex.put(issue);
+        return issue;
+    }
+
+    // PATCH идемпотентен и просто повторяется, а POST /issues мог создать issue до таймаута или 5xx
+    private ManagedIssue findApplied(SyncOperation operation) throws IOException {
+        if (operation.type() != SyncOperation.Type.CREATE) {
+            return null;
+        }
+        ManagedIssue issue = IssueIndex.loadRecent(repository, config.getGithub().getLabel())
+                .get(operation.item().fingerprint());
+        if (issue != null) {
+            issueIndex.put(issue);
+        }
+        return issue;
+    }
+
+    private ManagedIssue createIssue(SyncOperation operation) throws IOException {
+        GHIssueBuilder issueBuilder = repository.createIssue(operation.title())
+                .body(operation.body());
+
+        for (String label : catalog.labelReferences(operation.labels())) {
+            issueBuilder = issueBuilder.label(label);
+        }
+
+        String assignee = catalog.assignee(operation.item());
+        if (assignee != null) {
+            issueBuilder.assignee(assignee);
+        }
+
+        GHIssue issue = issueBuilder.create();
+        return operation.apply(issue.getNumber(), issue.getNodeId());
+    }
+
+    // Правка, закрытие и переоткрытие - один PATCH: в github-api каждое поле issue меняется отдельным запросом
+    private ManagedIssue updateIssue(SyncOperation operation) throws IOException {
+        ObjectNode patch = MAPPER.createObjectNode();
+        if (operation.title() != null) {
+            patch.put("title", operation.title());
+        }
+        patch.put("body", operation.body());
+        if (operation.labels() != null) {
+            catalog.labelReferences(operation.labels()).forEach(patch.putArray("labels")::add);
+        }
+        switch (operation.type()) {
+            case CLOSE -> patch.put("state", "closed").put("state_reason", "completed");
+            case REOPEN -> patch.put("state", "open");
+            default -> {
+            }
+        }
+        JsonNode issue = http.send("PATCH", issueUri(operation.issue().number()), patch, null).body();
+        return operation.apply(issue.path("number").asInt(operation.issue().number()),
+                issue.path("node_id").asText(operation.issue().nodeId()));
+    }
+
+    private URI issueUri(int number) {
+        String apiUrl = config.getGithub().getApiUrl();
+        String base = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
+        return URI.create(base + "/repos/" + config.getGithub().getRepo() + "/issues/" + number);
     }
 
-    private String formatBody(TodoItem item) {
-        String template = config.getIssueTemplate().getBody();
-        if (template == null) {
-            return String.format("""
-                **Задача**: %s
-                **Файл**: %s
-                **Строка**: %d
-                **Приоритет**: %s
-                **Категория**: %s%s%s
-                """,
-                item.getDescription(),
-                item.getFilePath(),
-                item.getLineNumber(),
-                item.getPriority(),
-                item.getCategory(),
-                item.getAssignee() != null ? "\n**Назначено**: " + item.getAssignee() : "",
-                item.getTags().length > 0 ? "\n**Теги**: " + String.join(", ", item.getTags()) : "");
-        }
-        return template
-                .replace("{description}", item.getDescription())
-                .replace("{file}", item.getFilePath().toString())
-                .replace("{line}", String.valueOf(item.getLineNumber()))
-                .replace("{priority}", item.getPriority())
-                .replace("{category}", item.getCategory())
-                .replace("{assignee}", item.getAssignee() != null ? item.getAssignee() : "")
-                .replace("{tags}", item.getTags().length > 0 ? String.join(", ", item.getTags()) : "");
+    private void reportProgress(SubmissionResult<SyncOperation, ManagedIssue> result, int completed, int total) {
+        if (result.isSuccessful()) {
+            System.out.printf("[%d/%d] %s issue #%d: %s%n", completed, total,
+                    result.getItem().type().done(), result.getValue().number(), result.getItem().description());
+        } else {
+            System.err.printf("[%d/%d] Не удалось %s issue \"%s\" (попыток: %d): %s%n",
+                    completed, total, result.getItem().type().verb(), result.getItem().description(),
+                    result.getAttempts(), result.getError().getMessage());
+        }
     }
 
-    private List<String> formatLabels(TodoItem item) {
-        List<String> labels = new ArrayList<>();
-        labels.add("good first issue");
-        labels.add(item.getCategory());
-        labels.add(item.getPriority());
-        if (item.getTags() != null) {
-            labels.addAll(List.of(item.getTags()));
+    @Override
+    public boolean issueExists(TodoItem item) {
+        try {
+            init();
+            return issueIndex.contains(item.fingerprint());
+        } catch (IOException e) {
+            return false;
         }
-        return labels;
     }
-} 
\ No newline at end of file
+}
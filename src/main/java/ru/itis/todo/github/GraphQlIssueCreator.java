@@ -0,0 +1,483 @@
+package ru.itis.todo.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import org.kohsuke.github.HttpException;
+import ru.itis.todo.api.IssueCreator;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.IssueContent;
+import ru.itis.todo.sync.IssueReconciler;
+import ru.itis.todo.sync.ManagedIssue;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncOperation;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static ru.itis.todo.github.GitHubHttp.MAPPER;
+
+// Создание и обновление issues через GraphQL: до github.batchSize мутаций createIssue/updateIssue
+// с псевдонимами o0, o1, ... в одном HTTP-запросе. Id репозитория, меток и исполнителей загружаются
+// один раз в RepositoryCatalog
+public class GraphQlIssueCreator implements IssueCreator {
+    // createLabel до сих пор доступен только в preview-схеме
+    private static final String LABEL_PREVIEW = "application/vnd.github.bane-preview+json";
+    // Ошибки отдельных мутаций, после которых повтор имеет смысл; остальные (валидация, доступ) окончательные
+    private static final Set<String> RETRYABLE_ERRORS = Set.of("RATE_LIMITED", "INTERNAL", "SERVICE_UNAVAILABLE", "TIMEOUT");
+
+    private static final String LABELS_QUERY = """
+            query($owner: String!, $name: String!, $cursor: String) {
+              repository(owner: $owner, name: $name) {
+                id
+                labels(first: 100, after: $cursor) { nodes { id name } pageInfo { hasNextPage endCursor } }
+              }
+            }""";
+    private static final String ASSIGNEES_QUERY = """
+            query($owner: String!, $name: String!, $cursor: String) {
+              repository(owner: $owner, name: $name) {
+                assignableUsers(first: 100, after: $cursor) { nodes { id login } pageInfo { hasNextPage endCursor } }
+              }
+            }""";
+    private static final String ISSUES_QUERY = """
+            query($owner: String!, $name: String!, $label: String!, $cursor: String) {
+              repository(owner: $owner, name: $name) {
+                issues(first: 100, after: $cursor, labels: [$label], states: [OPEN, CLOSED],
+                       orderBy: {field: CREATED_AT, direction: DESC}) {
+                  nodes { id number state title body labels(first: 100) { nodes { name } } }
+                  pageInfo { hasNextPage endCursor }
+                }
+              }
+            }""";
+
+    private final TodoConfig config;
+    private final TodoMetrics metrics;
+    private final IssueFormatter formatter;
+    private final URI endpoint;
+    private final Counter succeededMutations;
+    private final Counter failedMutations;
+    private final Counter retriedMutations;
+
+    private String repositoryId;
+    private RepositoryCatalog catalog;
+    private IssueIndex issueIndex;
+
+    private AdaptiveTokenBucket tokenBucket;
+    private IssueSubmissionScheduler scheduler;
+    private GitHubHttp http;
+
+    public GraphQlIssueCreator(TodoConfig config, TodoMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.formatter = new IssueFormatter(config);
+        this.endpoint = endpoint(config.getGithub().getApiUrl());
+        this.succeededMutations = metrics.counter(TodoMetrics.GITHUB_GRAPHQL_ISSUES, "outcome", "succeeded");
+        this.failedMutations = metrics.counter(TodoMetrics.GITHUB_GRAPHQL_ISSUES, "outcome", "failed");
+        this.retriedMutations = metrics.counter(TodoMetrics.GITHUB_GRAPHQL_ISSUES, "outcome", "retried");
+    }
+
+    // https://api.github.com -> https://api.github.com/graphql, GitHub Enterprise .../api/v3 -> .../api/graphql
+    static URI endpoint(String apiUrl) {
+        String base = apiUrl.endsWith("/") ? apiUrl.substring(0, apiUrl.length() - 1) : apiUrl;
+        if (base.endsWith("/api/v3")) {
+            base = base.substring(0, base.length() - "/v3".length());
+        }
+        return URI.create(base + "/graphql");
+    }
+
+    private void init() throws IOException {
+        TodoConfig.GitHubConfig github = config.getGithub();
+        if (scheduler == null) {
+            tokenBucket = new AdaptiveTokenBucket(github.getConcurrency(), github.getRequestsPerMinute());
+            scheduler = new IssueSubmissionScheduler(github.getConcurrency(), github.getMaxAttempts(),
+                    Duration.ofMillis(github.getRetryBackoffMillis()), tokenBucket, metrics);
+            http = new GitHubHttp(github.getToken(), tokenBucket);
+        }
+        if (catalog == null) {
+            catalog = loadCatalog(github);
+        }
+        if (issueIndex == null) {
+            issueIndex = loadIssueIndex(false);
+        }
+    }
+
+    @Override
+    public int createIssues(List<TodoItem> items, boolean dryRun) {
+        if (dryRun) {
+            formatter.preview(items);
+            return items.size();
+        }
+
+        initOrFail();
+        Map<String, SyncOperation> pending = new LinkedHashMap<>();
+        for (TodoItem item : items) {
+            String fingerprint = item.fingerprint();
+            if (!issueIndex.contains(fingerprint) && !pending.containsKey(fingerprint)) {
+                IssueContent content = formatter.content(item);
+                pending.put(fingerprint, new SyncOperation(SyncOperation.Type.CREATE, item, null,
+                        content.title(), content.markedBody(), content.labels()));
+            }
+        }
+        return execute(new ArrayList<>(pending.values())).get(SyncOperation.Type.CREATE);
+    }
+
+    @Override
+    public SyncSummary sync(ScanSnapshot snapshot, boolean dryRun) {
+        if (dryRun) {
+            // Без обращения к GitHub план неизвестен: показываем все TODO как будущие issues
+            formatter.preview(snapshot.items());
+            return SyncSummary.created(snapshot.items().size());
+        }
+
+        initOrFail();
+        return execute(IssueReconciler.plan(snapshot, issueIndex.issues(), formatter::content));
+    }
+
+    @Override
+    public boolean issueExists(TodoItem item) {
+        try {
+            init();
+            return issueIndex.contains(item.fingerprint());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private void initOrFail() {
+        try {
+            init();
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при создании issues: " + e.getMessage(), e);
+        }
+    }
+
+    private SyncSummary execute(List<SyncOperation> operations) {
+        SyncSummary summary = new SyncSummary();
+        if (operations.isEmpty()) {
+            return summary;
+        }
+        try {
+            provisionLabels(operations);
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка при подготовке меток и исполнителей: " + e.getMessage(), e);
+        }
+
+        int total = operations.size();
+        AtomicInteger completed = new AtomicInteger();
+        List<SyncOperation> remaining = operations;
+        // Пачка повторяется целиком планировщиком, только если запрос не дошёл или не был обработан (5xx, лимит).
+        // Ошибка отдельного псевдонима не трогает соседей: повторно, новой пачкой, отправляются лишь такие операции
+        for (int round = 1; !remaining.isEmpty(); round++) {
+            boolean lastRound = round >= config.getGithub().getMaxAttempts();
+            List<SyncOperation> retry = Collections.synchronizedList(new ArrayList<>());
+            scheduler.submitAll(partition(remaining), this::submitBatch, this::findApplied, (result, done, batches) -> {
+                List<SyncOperation> batch = result.getItem();
+                for (int i = 0; i < batch.size(); i++) {
+                    SyncOperation operation = batch.get(i);
+                    if (!result.isSuccessful()) {
+                        failedMutations.increment();
+                        summary.failed();
+                        reportFailure(operation, result.getError().getMessage(), completed.incrementAndGet(), total);
+                    } else if (result.getValue().numbers()[i] != null) {
+                        succeededMutations.increment();
+                        summary.completed(operation.type());
+                        metrics.syncOperation(operation.type()).increment();
+                        System.out.printf("[%d/%d] %s issue #%d: %s%n", completed.incrementAndGet(), total,
+                                operation.type().done(), result.getValue().numbers()[i], operation.description());
+                    } else if (result.getValue().retryable()[i] && !lastRound) {
+                        retriedMutations.increment();
+                        retry.add(operation);
+                    } else {
+                        failedMutations.increment();
+                        summary.failed();
+                        reportFailure(operation, result.getValue().errors()[i], completed.incrementAndGet(), total);
+                    }
+                }
+            });
+            remaining = new ArrayList<>(retry);
+        }
+
+        if (summary.getFailed() > 0) {
+            System.err.printf("Не удалось выполнить %d операций с issues%n", summary.getFailed());
+        }
+        return summary;
+    }
+
+    private List<List<SyncOperation>> partition(List<SyncOperation> operations) {
+        int size = Math.max(1, config.getGithub().getBatchSize());
+        List<List<SyncOperation>> batches = new ArrayList<>((operations.size() + size - 1) / size);
+        for (int from = 0; from < operations.size(); from += size) {
+            batches.add(operations.subList(from, Math.min(operations.size(), from + size)));
+        }
+        return batches;
+    }
+
+    // В одной пачке смешиваются createIssue и updateIssue (правка, закрытие, переоткрытие)
+    private BatchOutcome submitBatch(List<SyncOperation> batch) throws IOException {
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        ObjectNode variables = MAPPER.createObjectNode();
+        for (int i = 0; i < batch.size(); i++) {
+            SyncOperation operation = batch.get(i);
+            boolean create = operation.type() == SyncOperation.Type.CREATE;
+            String alias = "o" + i;
+            if (i > 0) {
+                declarations.append(", ");
+            }
+            declarations.append('$').append(alias).append(create ? ": CreateIssueInput!" : ": UpdateIssueInput!");
+            selections.append("\n  ").append(alias).append(create ? ": createIssue" : ": updateIssue")
+                    .append("(input: $").append(alias).append(") { issue { id number } }");
+            variables.set(alias, mutationInput(operation));
+        }
+        JsonNode response = post("mutation(" + declarations + ") {" + selections + "\n}", variables, null);
+
+        Integer[] numbers = new Integer[batch.size()];
+        String[] errors = new String[batch.size()];
+        boolean[] retryable = new boolean[batch.size()];
+        Map<String, JsonNode> aliasErrors = aliasErrors(response);
+        for (int i = 0; i < batch.size(); i++) {
+            JsonNode issue = response.path("data").path("o" + i).path("issue");
+            if (issue.hasNonNull("number")) {
+                numbers[i] = issue.get("number").asInt();
+                issueIndex.put(batch.get(i).apply(numbers[i], issue.path("id").asText()));
+                continue;
+            }
+            JsonNode error = aliasErrors.get("o" + i);
+            errors[i] = error != null ? error.path("message").asText() : "пустой ответ мутации";
+            retryable[i] = error == null || RETRYABLE_ERRORS.contains(error.path("type").asText());
+            if (error != null && "RATE_LIMITED".equals(error.path("type").asText())) {
+                tokenBucket.pauseFor(Duration.ofMillis(config.getGithub().getRetryBackoffMillis()));
+            }
+        }
+        return new BatchOutcome(numbers, errors, retryable);
+    }
+
+    // Пачка с createIssue после таймаута или 5xx могла быть выполнена: уже созданные issues находятся
+    // по отпечаткам, остальные операции уходят в следующий раунд. null - ничего не создано, пачка повторяется целиком
+    private BatchOutcome findApplied(List<SyncOperation> batch) throws IOException {
+        if (batch.stream().noneMatch(operation -> operation.type() == SyncOperation.Type.CREATE)) {
+            return null;
+        }
+        IssueIndex recent = loadIssueIndex(true);
+        Integer[] numbers = new Integer[batch.size()];
+        String[] errors = new String[batch.size()];
+        boolean[] retryable = new boolean[batch.size()];
+        boolean found = false;
+        for (int i = 0; i < batch.size(); i++) {
+            SyncOperation operation = batch.get(i);
+            ManagedIssue issue = operation.type() == SyncOperation.Type.CREATE
+                    ? recent.get(operation.item().fingerprint())
+                    : null;
+            if (issue != null) {
+                numbers[i] = issue.number();
+                issueIndex.put(issue);
+                found = true;
+            } else {
+                errors[i] = "результат пачки неизвестен";
+                retryable[i] = true;
+            }
+        }
+        return found ? new BatchOutcome(numbers, errors, retryable) : null;
+    }
+
+    private ObjectNode mutationInput(SyncOperation operation) {
+        ObjectNode input = MAPPER.createObjectNode();
+        if (operation.type() == SyncOperation.Type.CREATE) {
+            input.put("repositoryId", repositoryId);
+        } else {
+            input.put("id", operation.issue().nodeId());
+        }
+        if (operation.title() != null) {
+            input.put("title", operation.title());
+        }
+        input.put("body", operation.body());
+        if (operation.labels() != null) {
+            ArrayNode labels = input.putArray("labelIds");
+            catalog.labelReferences(operation.labels()).forEach(labels::add);
+        }
+        switch (operation.type()) {
+            case CREATE -> {
+                String userId = catalog.assignee(operation.item());
+                if (userId != null) {
+                    input.putArray("assigneeIds").add(userId);
+                }
+            }
+            case CLOSE -> input.put("state", "CLOSED");
+            case REOPEN -> input.put("state", "OPEN");
+            default -> {
+            }
+        }
+        return input;
+    }
+
+    private RepositoryCatalog loadCatalog(TodoConfig.GitHubConfig github) throws IOException {
+        RepositoryCatalog catalog = new RepositoryCatalog(github.getDefaultAssignee());
+        String cursor = null;
+        do {
+            JsonNode repository = query(LABELS_QUERY, repositoryVariables().put("cursor", cursor)).path("repository");
+            if (repository.isMissingNode() || repository.isNull()) {
+                throw new IOException("Repository " + github.getRepo() + " not found");
+            }
+            repositoryId = repository.path("id").asText();
+            JsonNode labels = repository.path("labels");
+            for (JsonNode label : labels.path("nodes")) {
+                catalog.addLabel(label.path("name").asText(), label.path("id").asText());
+            }
+            cursor = nextCursor(labels);
+        } while (cursor != null);
+
+        do {
+            JsonNode users = query(ASSIGNEES_QUERY, repositoryVariables().put("cursor", cursor))
+                    .path("repository").path("assignableUsers");
+            for (JsonNode user : users.path("nodes")) {
+                catalog.addAssignee(user.path("login").asText(), user.path("id").asText());
+            }
+            cursor = nextCursor(users);
+        } while (cursor != null);
+        return catalog;
+    }
+
+    // Тот же единственный постраничный проход по issues с меткой, что и в IssueIndex.load для REST;
+    // recent - только первая страница, самые новые issues
+    private IssueIndex loadIssueIndex(boolean recent) throws IOException {
+        IssueIndex index = new IssueIndex();
+        String cursor = null;
+        do {
+            JsonNode issues = query(ISSUES_QUERY, repositoryVariables()
+                    .put("label", config.getGithub().getLabel())
+                    .put("cursor", cursor))
+                    .path("repository").path("issues");
+            for (JsonNode issue : issues.path("nodes")) {
+                String body = issue.path("body").asText(null);
+                String fingerprint = IssueIndex.extractFingerprint(body);
+                if (fingerprint != null) {
+                    List<String> labels = new ArrayList<>();
+                    for (JsonNode label : issue.path("labels").path("nodes")) {
+                        labels.add(label.path("name").asText());
+                    }
+                    index.put(new ManagedIssue(fingerprint, issue.path("number").asInt(), issue.path("id").asText(),
+                            !"CLOSED".equals(issue.path("state").asText()), issue.path("title").asText(), body, labels));
+                }
+            }
+            cursor = nextCursor(issues);
+        } while (cursor != null && !recent);
+        return index;
+    }
+
+    // Недостающие метки создаются одной мутацией до отправки issues: createIssue и updateIssue принимают только id
+    private void provisionLabels(List<SyncOperation> operations) throws IOException {
+        List<String> names = catalog.missingLabels(operations);
+        if (!names.isEmpty()) {
+            ObjectNode variables = MAPPER.createObjectNode();
+            for (int i = 0; i < names.size(); i++) {
+                variables.putObject("l" + i)
+                        .put("repositoryId", repositoryId)
+                        .put("name", names.get(i))
+                        .put("color", RepositoryCatalog.LABEL_COLOR);
+            }
+            JsonNode response = post(aliased("mutation", "l", "CreateLabelInput!",
+                    "createLabel(input: $input) { label { id name } }", names.size()), variables, LABEL_PREVIEW);
+            Map<String, JsonNode> errors = aliasErrors(response);
+            for (int i = 0; i < names.size(); i++) {
+                JsonNode label = response.path("data").path("l" + i).path("label");
+                if (label.hasNonNull("id")) {
+                    catalog.addLabel(names.get(i), label.get("id").asText());
+                } else {
+                    JsonNode error = errors.get("l" + i);
+                    System.err.printf("Не удалось создать метку \"%s\", issues будут созданы без неё: %s%n",
+                            names.get(i), error != null ? error.path("message").asText() : "пустой ответ createLabel");
+                }
+            }
+        }
+        catalog.requireLabel(config.getGithub().getLabel());
+    }
+
+    private ObjectNode repositoryVariables() {
+        String[] repo = config.getGithub().getRepo().split("/", 2);
+        return MAPPER.createObjectNode().put("owner", repo[0]).put("name", repo[1]);
+    }
+
+    private static String nextCursor(JsonNode connection) {
+        JsonNode pageInfo = connection.path("pageInfo");
+        return pageInfo.path("hasNextPage").asBoolean() ? pageInfo.path("endCursor").asText() : null;
+    }
+
+    // operation($p0: T, $p1: T) { p0: field(... $p0 ...) p1: field(... $p1 ...) }
+    static String aliased(String operation, String prefix, String variableType, String field, int count) {
+        StringBuilder declarations = new StringBuilder();
+        StringBuilder selections = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String alias = prefix + i;
+            if (i > 0) {
+                declarations.append(", ");
+            }
+            declarations.append('$').append(alias).append(": ").append(variableType);
+            selections.append("\n  ").append(alias).append(": ").append(field.replace("$input", "$" + alias));
+        }
+        return operation + "(" + declarations + ") {" + selections + "\n}";
+    }
+
+    // Ошибки с path относятся к одному псевдониму; ошибки без path ломают весь запрос
+    private Map<String, JsonNode> aliasErrors(JsonNode response) throws IOException {
+        Map<String, JsonNode> errors = new HashMap<>();
+        for (JsonNode error : response.path("errors")) {
+            JsonNode path = error.path("path");
+            if (path.isArray() && !path.isEmpty()) {
+                errors.putIfAbsent(path.get(0).asText(), error);
+            } else {
+                throw requestFailed(error);
+            }
+        }
+        return errors;
+    }
+
+    // Запрос, в котором не ожидается частичных ошибок: любая ошибка - исключение
+    private JsonNode query(String query, ObjectNode variables) throws IOException {
+        JsonNode response = post(query, variables, null);
+        JsonNode errors = response.path("errors");
+        if (!errors.isEmpty()) {
+            throw requestFailed(errors.get(0));
+        }
+        return response.path("data");
+    }
+
+    private JsonNode post(String query, ObjectNode variables, String accept) throws IOException {
+        ObjectNode request = MAPPER.createObjectNode().put("query", query);
+        request.set("variables", variables);
+        GitHubHttp.Response response = http.send("POST", endpoint, request, accept);
+        for (JsonNode error : response.body().path("errors")) {
+            // Исчерпанный лимит очков GraphQL приходит с кодом 200 и отменяет весь запрос
+            if ("RATE_LIMITED".equals(error.path("type").asText()) && !error.path("path").isArray()) {
+                throw RateLimitedException.fromHeaders(response.headers());
+            }
+        }
+        return response.body();
+    }
+
+    // Запрос отклонён целиком (синтаксис, схема, доступ) - повтор ничего не изменит
+    private HttpException requestFailed(JsonNode error) {
+        return new HttpException("GraphQL request failed: " + error.path("message").asText(), 422, null, endpoint.toString());
+    }
+
+    private static void reportFailure(SyncOperation operation, String error, int completed, int total) {
+        System.err.printf("[%d/%d] Не удалось %s issue \"%s\": %s%n",
+                completed, total, operation.type().verb(), operation.description(), error);
+    }
+
+    // Результат пачки по позициям: номер issue либо текст ошибки
+    private record BatchOutcome(Integer[] numbers, String[] errors, boolean[] retryable) {
+    }
+}
@@ -0,0 +1,108 @@
+package ru.itis.todo.github;
+
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.sync.IssueContent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Заголовок, тело и метки issue по шаблонам issueTemplate - общие для REST и GraphQL
+public class IssueFormatter {
+    private static final List<String> DEFAULT_LABELS = List.of("good first issue", "{category}", "{priority}", "{tags}");
+
+    private final String trackingLabel;
+    private final IssueTemplate titleTemplate;
+    private final IssueTemplate bodyTemplate;
+    private final List<IssueTemplate> labelTemplates;
+
+    public IssueFormatter(TodoConfig config) {
+        this.trackingLabel = config.getGithub().getLabel();
+        // Шаблоны разбираются при создании бина: опечатка в подстановке останавливает запуск, а не первый TODO
+        TodoConfig.IssueTemplateConfig templates = config.getIssueTemplate() != null
+                ? config.getIssueTemplate()
+                : new TodoConfig.IssueTemplateConfig();
+        this.titleTemplate = templates.getTitle() != null ? IssueTemplate.compile(templates.getTitle()) : null;
+        this.bodyTemplate = templates.getBody() != null ? IssueTemplate.compile(templates.getBody()) : null;
+        this.labelTemplates = (templates.getLabels() != null ? templates.getLabels() : DEFAULT_LABELS).stream()
+                .map(IssueTemplate::compile)
+                .toList();
+    }
+
+    public void preview(List<TodoItem> items) {
+        for (TodoItem item : items) {
+            System.out.println("\nIssue для создания:");
+            System.out.println("Заголовок: " + title(item));
+            System.out.println("Описание:\n" + body(item));
+            System.out.println("Метки: " + String.join(", ", labels(item)));
+            if (item.getAssignee() != null) {
+                System.out.println("Назначено: " + item.getAssignee());
+            }
+        }
+    }
+
+    public IssueContent content(TodoItem item) {
+        return new IssueContent(title(item), body(item), labels(item));
+    }
+
+    public String title(TodoItem item) {
+        return titleTemplate != null ? titleTemplate.render(item) : item.getDescription();
+    }
+
+    public String body(TodoItem item) {
+        StringBuilder body = new StringBuilder(256);
+        if (bodyTemplate != null) {
+            bodyTemplate.appendTo(body, item);
+        } else {
+            appendDefaultBody(body, item);
+        }
+        return body.append('\n').append(IssueIndex.marker(item.fingerprint())).toString();
+    }
+
+    private static void appendDefaultBody(StringBuilder body, TodoItem item) {
+        body.append("**Задача**: ").append(item.getDescription())
+                .append("\n**Файл**: ").append(item.getFilePath())
+                .append("\n**Строка**: ").append(item.getLineNumber())
+                .append("\n**Приоритет**: ").append(item.getPriority())
+                .append("\n**Категория**: ").append(item.getCategory());
+        if (item.getAssignee() != null) {
+            body.append("\n**Назначено**: ").append(item.getAssignee());
+        }
+        if (item.getTags() != null && item.getTags().length > 0) {
+            body.append("\n**Теги**: ");
+            IssueTemplate.appendTags(body, item.getTags());
+        }
+        body.append('\n');
+    }
+
+    public List<String> labels(TodoItem item) {
+        // Метка github.label нужна всегда: по ней IssueIndex находит уже созданные issues
+        Set<String> labels = new LinkedHashSet<>();
+        labels.add(trackingLabel);
+        for (IssueTemplate template : labelTemplates) {
+            if (template.isTagList()) {
+                if (item.getTags() != null) {
+                    labels.addAll(List.of(item.getTags()));
+                }
+                continue;
+            }
+            String label = template.render(item).trim();
+            // Пустая подстановка ({assignee} без исполнителя) не превращается в пустую метку
+            if (!label.isEmpty()) {
+                labels.add(label);
+            }
+        }
+        return new ArrayList<>(labels);
+    }
+
+    // Логин без ведущего @, как его ждёт GitHub
+    public static String assigneeLogin(TodoItem item) {
+        String assignee = item.getAssignee();
+        if (assignee == null || assignee.isBlank()) {
+            return null;
+        }
+        return assignee.startsWith("@") ? assignee.substring(1) : assignee;
+    }
+}
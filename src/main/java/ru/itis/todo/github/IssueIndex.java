@@ -0,0 +1,95 @@
+package ru.itis.todo.github;
+
+import org.kohsuke.github.GHDirection;
+import org.kohsuke.github.GHIssue;
+import org.kohsuke.github.GHIssueQueryBuilder;
+import org.kohsuke.github.GHIssueState;
+import org.kohsuke.github.GHLabel;
+import org.kohsuke.github.GHRepository;
+import ru.itis.todo.sync.ManagedIssue;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class IssueIndex {
+    private static final Pattern MARKER = Pattern.compile("<!-- todo-fingerprint: ([0-9a-f]+) -->");
+
+    private final Map<String, ManagedIssue> issues = new ConcurrentHashMap<>();
+
+    public static IssueIndex load(GHRepository repository, String label) throws IOException {
+        IssueIndex index = new IssueIndex();
+        for (GHIssue issue : query(repository, label).list()) {
+            index.add(issue);
+        }
+        return index;
+    }
+
+    // Одна страница последних созданных issues с меткой: здесь ищется issue, создание которого завершилось
+    // таймаутом или 5xx, но могло дойти до GitHub
+    public static IssueIndex loadRecent(GHRepository repository, String label) throws IOException {
+        IssueIndex index = new IssueIndex();
+        for (GHIssue issue : query(repository, label)
+                .sort(GHIssueQueryBuilder.Sort.CREATED)
+                .direction(GHDirection.DESC)
+                .list()
+                .iterator()
+                .nextPage()) {
+            index.add(issue);
+        }
+        return index;
+    }
+
+    private static GHIssueQueryBuilder query(GHRepository repository, String label) {
+        return repository.queryIssues()
+                .label(label)
+                .state(GHIssueState.ALL)
+                .pageSize(100);
+    }
+
+    private void add(GHIssue issue) throws IOException {
+        String fingerprint = extractFingerprint(issue.getBody());
+        if (fingerprint != null && !issue.isPullRequest()) {
+            put(new ManagedIssue(fingerprint, issue.getNumber(), issue.getNodeId(),
+                    issue.getState() == GHIssueState.OPEN, issue.getTitle(), issue.getBody(),
+                    issue.getLabels().stream().map(GHLabel::getName).toList()));
+        }
+    }
+
+    public static String marker(String fingerprint) {
+        return "<!-- todo-fingerprint: " + fingerprint + " -->";
+    }
+
+    public static String extractFingerprint(String body) {
+        if (body == null) {
+            return null;
+        }
+        Matcher matcher = MARKER.matcher(body);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    public boolean contains(String fingerprint) {
+        return issues.containsKey(fingerprint);
+    }
+
+    public ManagedIssue get(String fingerprint) {
+        return issues.get(fingerprint);
+    }
+
+    // Дубликаты одного отпечатка схлопываются в пользу открытого issue
+    public void put(ManagedIssue issue) {
+        issues.merge(issue.fingerprint(), issue, (old, updated) ->
+                old.open() && !updated.open() && old.number() != updated.number() ? old : updated);
+    }
+
+    public Collection<ManagedIssue> issues() {
+        return issues.values();
+    }
+
+    public int size() {
+        return issues.size();
+    }
+}
@@ -0,0 +1,179 @@
+package ru.itis.todo.github;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import org.kohsuke.github.HttpException;
+import ru.itis.todo.metrics.TodoMetrics;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IssueSubmissionScheduler {
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(1);
+
+    private final int concurrency;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final AdaptiveTokenBucket tokenBucket;
+    private final Timer successfulRequests;
+    private final Timer failedRequests;
+    private final Timer rateLimitWait;
+    private final Counter retries;
+    private final Counter rateLimitHits;
+
+    public IssueSubmissionScheduler(int concurrency, int maxAttempts, Duration baseBackoff, AdaptiveTokenBucket tokenBucket,
+                                    TodoMetrics metrics) {
+        this.concurrency = Math.max(1, concurrency);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoff = baseBackoff;
+        this.tokenBucket = tokenBucket;
+        this.successfulRequests = metrics.timer(TodoMetrics.GITHUB_REQUESTS, "outcome", "success");
+        this.failedRequests = metrics.timer(TodoMetrics.GITHUB_REQUESTS, "outcome", "failure");
+        this.rateLimitWait = metrics.timer(TodoMetrics.GITHUB_RATE_LIMIT_WAIT);
+        this.retries = metrics.counter(TodoMetrics.GITHUB_RETRIES);
+        this.rateLimitHits = metrics.counter(TodoMetrics.GITHUB_RATE_LIMITED);
+    }
+
+    @FunctionalInterface
+    public interface Task<T, R> {
+        R submit(T item) throws IOException;
+    }
+
+    // Результат уже выполненной операции или null. Нужен неидемпотентным задачам (создание issue): после таймаута
+    // или 5xx запрос мог дойти до GitHub, и повтор без проверки создал бы дубликат
+    @FunctionalInterface
+    public interface Lookup<T, R> {
+        R find(T item) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener<T, R> {
+        void onResult(SubmissionResult<T, R> result, int completed, int total);
+    }
+
+    public <T, R> List<SubmissionResult<T, R>> submitAll(List<T> items, Task<T, R> task, ProgressListener<T, R> listener) {
+        return submitAll(items, task, null, listener);
+    }
+
+    public <T, R> List<SubmissionResult<T, R>> submitAll(List<T> items, Task<T, R> task, Lookup<T, R> applied,
+                                                         ProgressListener<T, R> listener) {
+        AtomicInteger completed = new AtomicInteger();
+        List<Future<SubmissionResult<T, R>>> futures = new ArrayList<>(items.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+                Thread.ofVirtual().name("issue-submit-", 0).factory())) {
+            for (T item : items) {
+                futures.add(executor.submit(() -> {
+                    SubmissionResult<T, R> result = submit(item, task, applied);
+                    listener.onResult(result, completed.incrementAndGet(), items.size());
+                    return result;
+                }));
+            }
+        }
+
+        List<SubmissionResult<T, R>> results = new ArrayList<>(items.size());
+        for (Future<SubmissionResult<T, R>> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Отправка issues прервана", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Ошибка при отправке issues: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return results;
+    }
+
+    private <T, R> SubmissionResult<T, R> submit(T item, Task<T, R> task, Lookup<T, R> applied)
+            throws InterruptedException {
+        int attempt = 1;
+        boolean uncertain = false;
+        while (true) {
+            long waitStarted = System.nanoTime();
+            tokenBucket.acquire();
+            long started = System.nanoTime();
+            rateLimitWait.record(started - waitStarted, TimeUnit.NANOSECONDS);
+            try {
+                R value = uncertain && applied != null ? applied.find(item) : null;
+                if (value == null) {
+                    value = task.submit(item);
+                }
+                successfulRequests.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                return SubmissionResult.<T, R>builder()
+                        .item(item)
+                        .value(value)
+                        .attempts(attempt)
+                        .build();
+            } catch (IOException e) {
+                failedRequests.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                RateLimitedException rateLimited = findRateLimit(e);
+                if (rateLimited != null) {
+                    rateLimitHits.increment();
+                    retries.increment();
+                    // Лимит общий для всех потоков, поэтому ждём через бакет, а не в текущем потоке.
+                    // Отклонённый по лимиту запрос не выполнялся и попыткой не считается
+                    tokenBucket.pauseFor(rateLimited.getRetryAfter());
+                    continue;
+                }
+                if (!isTransient(e) || attempt >= maxAttempts) {
+                    return failed(item, attempt, e);
+                }
+                retries.increment();
+                uncertain = mayHaveApplied(e);
+                Thread.sleep(backoff(attempt).toMillis());
+                attempt++;
+            }
+        }
+    }
+
+    private Duration backoff(int attempt) {
+        long maxDelay = Math.min(MAX_BACKOFF.toMillis(), baseBackoff.toMillis() << Math.min(attempt - 1, 20));
+        // Случайная задержка в пределах [d/2, d] разносит повторы параллельных запросов во времени
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay + 1));
+    }
+
+    private static RateLimitedException findRateLimit(Throwable e) {
+        // github-api оборачивает исключения обработчиков лимитов в HttpException
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RateLimitedException rateLimited) {
+                return rateLimited;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isTransient(IOException e) {
+        if (e instanceof HttpException httpException) {
+            int code = httpException.getResponseCode();
+            return code <= 0 || code == 408 || code == 429 || code >= 500;
+        }
+        return !(e instanceof FileNotFoundException);
+    }
+
+    // Ответ 408 и 429 означает, что запрос не обработан; таймаут, обрыв соединения и 5xx - что результат неизвестен
+    private static boolean mayHaveApplied(IOException e) {
+        if (e instanceof HttpException httpException) {
+            int code = httpException.getResponseCode();
+            return code <= 0 || code >= 500;
+        }
+        return true;
+    }
+
+    private static <T, R> SubmissionResult<T, R> failed(T item, int attempts, Exception error) {
+        return SubmissionResult.<T, R>builder()
+                .item(item)
+                .attempts(attempts)
+                .error(error)
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package ru.itis.todo.github;
+
+import ru.itis.todo.api.TodoItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// Шаблон issueTemplate, разобранный один раз: чередование литералов и подстановок.
+// Каждый TODO рендерится одним проходом в StringBuilder вместо цепочки String.replace по всему шаблону
+public final class IssueTemplate {
+    public enum Placeholder {
+        DESCRIPTION, FILE, LINE, PRIORITY, CATEGORY, ASSIGNEE, TAGS;
+
+        private final String token = "{" + name().toLowerCase(Locale.ROOT) + "}";
+
+        public String token() {
+            return token;
+        }
+
+        static Placeholder find(String name) {
+            for (Placeholder placeholder : values()) {
+                if (placeholder.name().equalsIgnoreCase(name)) {
+                    return placeholder;
+                }
+            }
+            return null;
+        }
+    }
+
+    // literals[i] стоит перед placeholders[i], последний литерал - после всех подстановок
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+    private final int literalLength;
+
+    private IssueTemplate(List<String> literals, List<Placeholder> placeholders) {
+        this.literals = literals.toArray(new String[0]);
+        this.placeholders = placeholders.toArray(new Placeholder[0]);
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    // {имя} - подстановка, {{ и }} - литеральные скобки. Неизвестное имя - ошибка конфигурации,
+    // а не молча оставленный в issue текст
+    public static IssueTemplate compile(String template) {
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            if ((c == '{' || c == '}') && i + 1 < template.length() && template.charAt(i + 1) == c) {
+                literal.append(c);
+                i += 2;
+                continue;
+            }
+            if (c == '{') {
+                int end = template.indexOf('}', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed placeholder at position " + i + " in template '" + template + "'");
+                }
+                String name = template.substring(i + 1, end).trim();
+                Placeholder placeholder = Placeholder.find(name);
+                if (placeholder == null) {
+                    throw new IllegalArgumentException("Unknown placeholder {" + name + "} in template '" + template
+                            + "', expected one of " + Arrays.stream(Placeholder.values()).map(Placeholder::token).toList());
+                }
+                literals.add(literal.toString());
+                placeholders.add(placeholder);
+                literal.setLength(0);
+                i = end + 1;
+                continue;
+            }
+            literal.append(c);
+            i++;
+        }
+        literals.add(literal.toString());
+        return new IssueTemplate(literals, placeholders);
+    }
+
+    public String render(TodoItem item) {
+        StringBuilder result = new StringBuilder(literalLength + 16 * placeholders.length + descriptionLength(item));
+        appendTo(result, item);
+        return result.toString();
+    }
+
+    public void appendTo(StringBuilder result, TodoItem item) {
+        for (int i = 0; i < placeholders.length; i++) {
+            result.append(literals[i]);
+            append(result, placeholders[i], item);
+        }
+        result.append(literals[placeholders.length]);
+    }
+
+    // Шаблон метки из одной подстановки {tags} даёт по метке на каждый тег
+    public boolean isTagList() {
+        return placeholders.length == 1 && placeholders[0] == Placeholder.TAGS
+                && literals[0].isEmpty() && literals[1].isEmpty();
+    }
+
+    static void append(StringBuilder result, Placeholder placeholder, TodoItem item) {
+        switch (placeholder) {
+            case DESCRIPTION -> appendNullable(result, item.getDescription());
+            case FILE -> {
+                if (item.getFilePath() != null) {
+                    result.append(item.getFilePath());
+                }
+            }
+            case LINE -> result.append(item.getLineNumber());
+            case PRIORITY -> appendNullable(result, item.getPriority());
+            case CATEGORY -> appendNullable(result, item.getCategory());
+            case ASSIGNEE -> appendNullable(result, item.getAssignee());
+            case TAGS -> appendTags(result, item.getTags());
+        }
+    }
+
+    static void appendTags(StringBuilder result, String[] tags) {
+        if (tags == null) {
+            return;
+        }
+        for (int i = 0; i < tags.length; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(tags[i]);
+        }
+    }
+
+    private static void appendNullable(StringBuilder result, String value) {
+        if (value != null) {
+            result.append(value);
+        }
+    }
+
+    private static int descriptionLength(TodoItem item) {
+        return item.getDescription() != null ? item.getDescription().length() : 0;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.itis.todo.github;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.UnaryOperator;
+
+public class RateLimitedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final Duration retryAfter;
+
+    public RateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    // Retry-After - вторичный лимит, X-RateLimit-Reset - исчерпанный основной
+    public static RateLimitedException fromHeaders(UnaryOperator<String> headers) {
+        String retryAfter = headers.apply("Retry-After");
+        if (retryAfter != null) {
+            return new RateLimitedException("Превышен вторичный лимит запросов GitHub",
+                    Duration.ofSeconds(Long.parseLong(retryAfter.trim())));
+        }
+        String reset = headers.apply("X-RateLimit-Reset");
+        Duration wait = reset != null
+                ? Duration.ofMillis(Math.max(0, Long.parseLong(reset.trim()) * 1000 - System.currentTimeMillis()))
+                : Duration.ofMinutes(1);
+        return new RateLimitedException("Превышен лимит запросов GitHub", wait);
+    }
+}
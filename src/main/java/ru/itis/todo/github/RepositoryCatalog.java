@@ -0,0 +1,107 @@
+package ru.itis.todo.github;
+
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.sync.SyncOperation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Метки и исполнители репозитория, загруженные один раз за запуск (в --watch - на всё время работы).
+// До отправки issues недостающие метки создаются, а недопустимые исполнители заменяются или отбрасываются,
+// чтобы запрос на создание issue не создавал метки неявно и не падал с 422 из-за исполнителя
+public class RepositoryCatalog {
+    public static final String LABEL_COLOR = "ededed";
+
+    // Значение - то, что нужно API для ссылки на объект: имя метки для REST, node id для GraphQL.
+    // Ключи в нижнем регистре: GitHub сравнивает и метки, и логины без учёта регистра
+    private final Map<String, String> labels = new ConcurrentHashMap<>();
+    private final Map<String, String> assignees = new ConcurrentHashMap<>();
+    private final String defaultAssignee;
+    private final Set<String> reportedAssignees = ConcurrentHashMap.newKeySet();
+
+    public RepositoryCatalog(String defaultAssignee) {
+        this.defaultAssignee = defaultAssignee != null && !defaultAssignee.isBlank()
+                ? defaultAssignee.trim().replaceFirst("^@", "")
+                : null;
+    }
+
+    public void addLabel(String name, String reference) {
+        labels.put(key(name), reference);
+    }
+
+    public String label(String name) {
+        return labels.get(key(name));
+    }
+
+    public void addAssignee(String login, String reference) {
+        assignees.put(key(login), reference);
+    }
+
+    // Метки операций, которых ещё нет в репозитории, в порядке первого появления и в написании из первого TODO
+    public List<String> missingLabels(Collection<SyncOperation> operations) {
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (SyncOperation operation : operations) {
+            if (operation.labels() == null) {
+                continue;
+            }
+            for (String label : operation.labels()) {
+                if (!labels.containsKey(key(label))) {
+                    missing.putIfAbsent(key(label), label);
+                }
+            }
+        }
+        return new ArrayList<>(missing.values());
+    }
+
+    // Ссылки на метки issue; метки, которые так и не удалось создать, не отправляются
+    public List<String> labelReferences(List<String> names) {
+        List<String> references = new ArrayList<>(names.size());
+        for (String name : names) {
+            String reference = labels.get(key(name));
+            if (reference != null) {
+                references.add(reference);
+            }
+        }
+        return references;
+    }
+
+    // Ссылка на исполнителя TODO: сам исполнитель, если его можно назначить, иначе github.defaultAssignee или null
+    public String assignee(TodoItem item) {
+        String login = IssueFormatter.assigneeLogin(item);
+        if (login == null) {
+            return null;
+        }
+        String reference = assignees.get(key(login));
+        if (reference != null) {
+            return reference;
+        }
+        String fallback = defaultAssignee != null ? assignees.get(key(defaultAssignee)) : null;
+        if (reportedAssignees.add(key(login))) {
+            if (fallback != null) {
+                System.err.printf("@%s нельзя назначить исполнителем в репозитории, его TODO назначаются на @%s%n",
+                        login, defaultAssignee);
+            } else {
+                System.err.printf("@%s нельзя назначить исполнителем в репозитории, его TODO будут созданы без исполнителя%n",
+                        login);
+            }
+        }
+        return fallback;
+    }
+
+    // Без метки github.label созданный issue не найдётся при следующем запуске и будет создан повторно
+    public void requireLabel(String name) {
+        if (label(name) == null) {
+            throw new IllegalStateException("Метка \"" + name + "\" отсутствует в репозитории и не может быть создана");
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,17 @@
+package ru.itis.todo.github;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SubmissionResult<T, R> {
+    private T item;
+    private R value;
+    private int attempts;
+    private Exception error;
+
+    public boolean isSuccessful() {
+        return error == null;
+    }
+}
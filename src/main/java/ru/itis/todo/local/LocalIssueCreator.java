@@ -0,0 +1,168 @@
+package ru.itis.todo.local;
+
+import org.kohsuke.github.HttpException;
+import ru.itis.todo.api.IssueCreator;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.github.AdaptiveTokenBucket;
+import ru.itis.todo.github.IssueFormatter;
+import ru.itis.todo.github.IssueSubmissionScheduler;
+import ru.itis.todo.github.SubmissionResult;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.IssueContent;
+import ru.itis.todo.sync.IssueReconciler;
+import ru.itis.todo.sync.ManagedIssue;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncOperation;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Issues в LocalIssueStore вместо GitHub: та же сверка, тот же планировщик с лимитом, параллельностью и повторами.
+// Задержка и доля ошибок local.* имитируют сеть, чтобы поведение планировщика и отсечения повторов
+// можно было проверять и измерять без токена и лимитов GitHub
+public class LocalIssueCreator implements IssueCreator, Closeable {
+    private final TodoConfig config;
+    private final TodoMetrics metrics;
+    private final IssueFormatter formatter;
+    private LocalIssueStore store;
+    private IssueSubmissionScheduler scheduler;
+
+    public LocalIssueCreator(TodoConfig config, TodoMetrics metrics) {
+        this.config = config;
+        this.metrics = metrics;
+        this.formatter = new IssueFormatter(config);
+    }
+
+    private synchronized void init() throws IOException {
+        if (store == null) {
+            TodoConfig.GitHubConfig github = config.getGithub();
+            int requestsPerMinute = config.getLocal().getRequestsPerMinute();
+            AdaptiveTokenBucket tokenBucket = new AdaptiveTokenBucket(github.getConcurrency(),
+                    requestsPerMinute > 0 ? requestsPerMinute : Integer.MAX_VALUE);
+            scheduler = new IssueSubmissionScheduler(github.getConcurrency(), github.getMaxAttempts(),
+                    Duration.ofMillis(github.getRetryBackoffMillis()), tokenBucket, metrics);
+            store = LocalIssueStore.open(Path.of(config.getLocal().getPath()));
+        }
+    }
+
+    @Override
+    public int createIssues(List<TodoItem> items, boolean dryRun) {
+        if (dryRun) {
+            formatter.preview(items);
+            return items.size();
+        }
+
+        initOrFail();
+        Map<String, SyncOperation> pending = new LinkedHashMap<>();
+        for (TodoItem item : items) {
+            String fingerprint = item.fingerprint();
+            if (!store.contains(fingerprint) && !pending.containsKey(fingerprint)) {
+                IssueContent content = formatter.content(item);
+                pending.put(fingerprint, new SyncOperation(SyncOperation.Type.CREATE, item, null,
+                        content.title(), content.markedBody(), content.labels()));
+            }
+        }
+        return execute(new ArrayList<>(pending.values())).get(SyncOperation.Type.CREATE);
+    }
+
+    @Override
+    public SyncSummary sync(ScanSnapshot snapshot, boolean dryRun) {
+        if (dryRun) {
+            formatter.preview(snapshot.items());
+            return SyncSummary.created(snapshot.items().size());
+        }
+
+        initOrFail();
+        try {
+            return execute(IssueReconciler.plan(snapshot, store.issues(), formatter::content));
+        } catch (IOException e) {
+            throw new RuntimeException("Ошибка чтения локального хранилища issues: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean issueExists(TodoItem item) {
+        try {
+            init();
+            return store.contains(item.fingerprint());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+    }
+
+    private void initOrFail() {
+        try {
+            init();
+        } catch (IOException e) {
+            throw new RuntimeException("Не удалось открыть локальное хранилище issues: " + e.getMessage(), e);
+        }
+    }
+
+    private SyncSummary execute(List<SyncOperation> operations) {
+        SyncSummary summary = new SyncSummary();
+        for (SubmissionResult<SyncOperation, ManagedIssue> result
+                : scheduler.submitAll(operations, this::submit, this::reportProgress)) {
+            if (result.isSuccessful()) {
+                summary.completed(result.getItem().type());
+                metrics.syncOperation(result.getItem().type()).increment();
+            } else {
+                summary.failed();
+            }
+        }
+        if (summary.getFailed() > 0) {
+            System.err.printf("Не удалось выполнить %d операций с issues%n", summary.getFailed());
+        }
+        return summary;
+    }
+
+    private ManagedIssue submit(SyncOperation operation) throws IOException {
+        simulateRequest();
+        // Номер 0 - новый issue, номер ему выдаёт хранилище
+        return store.save(operation.apply(operation.issue() != null ? operation.issue().number() : 0, null));
+    }
+
+    // Ошибка возникает до записи, как отклонённый запрос: повтор не создаёт дубликат
+    private void simulateRequest() throws IOException {
+        TodoConfig.LocalConfig local = config.getLocal();
+        if (local.getLatencyMillis() > 0) {
+            try {
+                Thread.sleep(local.getLatencyMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Local issue request interrupted");
+            }
+        }
+        if (local.getFailureRate() > 0 && ThreadLocalRandom.current().nextDouble() < local.getFailureRate()) {
+            throw new HttpException("Injected failure", 502, null, local.getPath());
+        }
+    }
+
+    private void reportProgress(SubmissionResult<SyncOperation, ManagedIssue> result, int completed, int total) {
+        if (result.isSuccessful()) {
+            System.out.printf("[%d/%d] %s issue #%d: %s%n", completed, total,
+                    result.getItem().type().done(), result.getValue().number(), result.getItem().description());
+        } else {
+            System.err.printf("[%d/%d] Не удалось %s issue \"%s\" (попыток: %d): %s%n",
+                    completed, total, result.getItem().type().verb(), result.getItem().description(),
+                    result.getAttempts(), result.getError().getMessage());
+        }
+    }
+}
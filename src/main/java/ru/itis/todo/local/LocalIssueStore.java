@@ -0,0 +1,355 @@
+package ru.itis.todo.local;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import ru.itis.todo.sync.ManagedIssue;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+
+// Локальное хранилище issues. Журнал issues.jsonl только дописывается: каждая строка - полное состояние issue
+// после создания или изменения. Индекс issues.idx - хэш-таблица с открытой адресацией в отображённом в память
+// файле: отпечаток -> смещение последней записи в журнале, поэтому проверка существования не читает журнал
+// и не держит issues в куче. Источник истины - журнал: отставший индекс догоняется, повреждённый строится заново
+public class LocalIssueStore implements Closeable {
+    public static final String LOG_FILE = "issues.jsonl";
+    public static final String INDEX_FILE = "issues.idx";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int MAGIC = 0x54444958;
+    private static final int FORMAT_VERSION = 1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Заголовок: magic, версия, ёмкость, число записей, следующий номер issue, длина журнала, учтённая в индексе
+    private static final int HEADER_BYTES = 32;
+    private static final int CAPACITY_AT = 8;
+    private static final int SIZE_AT = 12;
+    private static final int NEXT_NUMBER_AT = 16;
+    private static final int LOG_LENGTH_AT = 24;
+    // Ячейка: отпечаток, смещение записи, длина записи (0 - ячейка свободна), выравнивание
+    private static final int SLOT_BYTES = 24;
+    private static final int OFFSET_AT = 8;
+    private static final int LENGTH_AT = 16;
+
+    private final FileChannel log;
+    private final FileChannel index;
+    private MappedByteBuffer table;
+    private int capacity;
+    private int size;
+    private int nextNumber;
+    private long logLength;
+
+    private LocalIssueStore(Path directory) throws IOException {
+        log = FileChannel.open(directory.resolve(LOG_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            index = FileChannel.open(directory.resolve(INDEX_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            log.close();
+            throw e;
+        }
+    }
+
+    public static LocalIssueStore open(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        LocalIssueStore store = new LocalIssueStore(directory);
+        try {
+            store.logLength = store.dropIncompleteRecord();
+            if (!store.loadIndex()) {
+                store.rebuildIndex();
+            }
+            return store;
+        } catch (IOException | RuntimeException e) {
+            store.close();
+            throw e;
+        }
+    }
+
+    public synchronized boolean contains(String fingerprint) {
+        return table.getInt(slotAt(find(key(fingerprint))) + LENGTH_AT) != 0;
+    }
+
+    public synchronized ManagedIssue get(String fingerprint) throws IOException {
+        int at = slotAt(find(key(fingerprint)));
+        int length = table.getInt(at + LENGTH_AT);
+        return length != 0 ? read(table.getLong(at + OFFSET_AT), length) : null;
+    }
+
+    // Последние состояния всех issues в порядке журнала: чтение идёт по файлу вперёд, без прыжков
+    public synchronized List<ManagedIssue> issues() throws IOException {
+        long[] offsets = new long[size];
+        int[] lengths = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int at = slotAt(slot);
+            if (table.getInt(at + LENGTH_AT) != 0) {
+                offsets[count] = table.getLong(at + OFFSET_AT);
+                lengths[count++] = table.getInt(at + LENGTH_AT);
+            }
+        }
+        int[] order = IntStream.range(0, count)
+                .boxed()
+                .sorted(Comparator.comparingLong(i -> offsets[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        List<ManagedIssue> issues = new ArrayList<>(count);
+        for (int i : order) {
+            issues.add(read(offsets[i], lengths[i]));
+        }
+        return issues;
+    }
+
+    // Issue с номером 0 - новый: номер выдаётся здесь. Журнал не синхронизируется с диском на каждой записи,
+    // как и сетевой API, он переживает падение процесса, но не отключение питания; force выполняется в close
+    public synchronized ManagedIssue save(ManagedIssue issue) throws IOException {
+        ManagedIssue saved = issue.number() > 0
+                ? issue
+                : new ManagedIssue(issue.fingerprint(), nextNumber, null, issue.open(), issue.title(), issue.body(),
+                issue.labels());
+        byte[] record = encode(saved);
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        while (buffer.hasRemaining()) {
+            log.write(buffer, logLength + buffer.position());
+        }
+        // Индекс обновляется после журнала: при падении между ними запись будет доиндексирована при открытии
+        put(key(saved.fingerprint()), logLength, record.length);
+        logLength += record.length;
+        nextNumber = Math.max(nextNumber, saved.number() + 1);
+        writeHeader();
+        return saved;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try (log; index) {
+            if (table != null) {
+                table.force();
+            }
+            log.force(false);
+        }
+    }
+
+    private boolean loadIndex() throws IOException {
+        long fileSize = index.size();
+        if (fileSize < HEADER_BYTES) {
+            return false;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        readFully(index, header, 0);
+        int indexCapacity = header.getInt(CAPACITY_AT);
+        long indexedLength = header.getLong(LOG_LENGTH_AT);
+        if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION
+                || Integer.bitCount(indexCapacity) != 1 || fileSize != HEADER_BYTES + (long) indexCapacity * SLOT_BYTES
+                || indexedLength < 0 || indexedLength > logLength) {
+            return false;
+        }
+        capacity = indexCapacity;
+        size = header.getInt(SIZE_AT);
+        nextNumber = header.getInt(NEXT_NUMBER_AT);
+        table = index.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+        replay(indexedLength);
+        return true;
+    }
+
+    private void rebuildIndex() throws IOException {
+        if (index.size() > 0) {
+            System.err.println("Индекс локального хранилища issues недействителен, строим его заново по журналу");
+        }
+        index.truncate(0);
+        capacity = INITIAL_CAPACITY;
+        size = 0;
+        nextNumber = 1;
+        table = index.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        table.putInt(0, MAGIC);
+        table.putInt(4, FORMAT_VERSION);
+        writeHeader();
+        replay(0);
+    }
+
+    // Дописывает в индекс записи журнала, сделанные после последнего обновления индекса
+    private void replay(long from) throws IOException {
+        if (from >= logLength) {
+            return;
+        }
+        log.position(from);
+        InputStream in = new BufferedInputStream(Channels.newInputStream(log), 1 << 16);
+        ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+        long offset = from;
+        while (offset + line.size() < logLength) {
+            int b = in.read();
+            line.write(b);
+            if (b == '\n') {
+                JsonNode record = MAPPER.readTree(line.toByteArray());
+                put(key(record.path("fingerprint").asText()), offset, line.size());
+                nextNumber = Math.max(nextNumber, record.path("number").asInt() + 1);
+                offset += line.size();
+                line.reset();
+            }
+        }
+        writeHeader();
+    }
+
+    // Незавершённая последняя строка остаётся после падения во время записи - её issue считается не созданным
+    private long dropIncompleteRecord() throws IOException {
+        long length = log.size();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = length;
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            readFully(log, buffer, start);
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    long complete = start + i + 1;
+                    if (complete < length) {
+                        System.err.printf("Журнал локального хранилища issues обрывается, отбрасываем %d байт%n",
+                                length - complete);
+                        log.truncate(complete);
+                    }
+                    return complete;
+                }
+            }
+            end = start;
+        }
+        log.truncate(0);
+        return 0;
+    }
+
+    private void put(long fingerprint, long offset, int length) {
+        int slot = find(fingerprint);
+        if (table.getInt(slotAt(slot) + LENGTH_AT) == 0) {
+            // Заполненность не выше половины: цепочки проб остаются короткими, свободная ячейка всегда есть
+            if ((size + 1) * 2L > capacity) {
+                grow();
+                slot = find(fingerprint);
+            }
+            size++;
+        }
+        int at = slotAt(slot);
+        table.putLong(at, fingerprint);
+        table.putLong(at + OFFSET_AT, offset);
+        table.putInt(at + LENGTH_AT, length);
+    }
+
+    private int find(long fingerprint) {
+        int mask = capacity - 1;
+        // Отпечаток - префикс SHA-256, его биты уже равномерны
+        for (int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask; ; slot = (slot + 1) & mask) {
+            int at = slotAt(slot);
+            if (table.getInt(at + LENGTH_AT) == 0 || table.getLong(at) == fingerprint) {
+                return slot;
+            }
+        }
+    }
+
+    // Таблица растёт на месте: файл удлиняется и отображается заново, записи раскладываются по новой ёмкости.
+    // Пока перестройка не закончена, длина журнала в заголовке -1, и прерванная перестройка даёт полную при открытии
+    private void grow() {
+        long[] fingerprints = new long[size];
+        long[] offsets = new long[size];
+        int[] lengths = new int[size];
+        int count = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            int at = slotAt(slot);
+            if (table.getInt(at + LENGTH_AT) != 0) {
+                fingerprints[count] = table.getLong(at);
+                offsets[count] = table.getLong(at + OFFSET_AT);
+                lengths[count++] = table.getInt(at + LENGTH_AT);
+            }
+        }
+        table.putLong(LOG_LENGTH_AT, -1);
+        for (int at = HEADER_BYTES; at < HEADER_BYTES + capacity * SLOT_BYTES; at += 8) {
+            table.putLong(at, 0);
+        }
+        capacity *= 2;
+        try {
+            table = index.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        } catch (IOException e) {
+            throw new IllegalStateException("Не удалось увеличить индекс локального хранилища issues: " + e.getMessage(), e);
+        }
+        for (int i = 0; i < count; i++) {
+            int at = slotAt(find(fingerprints[i]));
+            table.putLong(at, fingerprints[i]);
+            table.putLong(at + OFFSET_AT, offsets[i]);
+            table.putInt(at + LENGTH_AT, lengths[i]);
+        }
+        writeHeader();
+    }
+
+    private void writeHeader() {
+        table.putInt(CAPACITY_AT, capacity);
+        table.putInt(SIZE_AT, size);
+        table.putInt(NEXT_NUMBER_AT, nextNumber);
+        table.putLong(LOG_LENGTH_AT, logLength);
+    }
+
+    private ManagedIssue read(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(log, buffer, offset);
+        JsonNode record = MAPPER.readTree(buffer.array());
+        List<String> labels = new ArrayList<>();
+        for (JsonNode label : record.path("labels")) {
+            labels.add(label.asText());
+        }
+        return new ManagedIssue(record.path("fingerprint").asText(), record.path("number").asInt(), null,
+                "open".equals(record.path("state").asText()), record.path("title").asText(),
+                record.path("body").asText(), labels);
+    }
+
+    private static byte[] encode(ManagedIssue issue) throws IOException {
+        ObjectNode record = MAPPER.createObjectNode()
+                .put("number", issue.number())
+                .put("fingerprint", issue.fingerprint())
+                .put("state", issue.open() ? "open" : "closed")
+                .put("title", issue.title())
+                .put("body", issue.body());
+        issue.labels().forEach(record.putArray("labels")::add);
+        // Jackson экранирует переводы строк, поэтому запись всегда занимает одну строку
+        byte[] json = MAPPER.writeValueAsBytes(record);
+        byte[] line = Arrays.copyOf(json, json.length + 1);
+        line[json.length] = '\n';
+        return line;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+            }
+        }
+    }
+
+    private static long key(String fingerprint) {
+        if (fingerprint == null || fingerprint.length() != 16) {
+            throw new IllegalArgumentException("Unexpected fingerprint " + fingerprint);
+        }
+        return HexFormat.fromHexDigitsToLong(fingerprint);
+    }
+
+    private static int slotAt(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,154 @@
+package ru.itis.todo.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Measurement;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.itis.todo.api.TodoParser;
+import ru.itis.todo.sync.SyncOperation;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Метрики всех этапов: клонирование, обход, разбор, запросы к GitHub.
+// Все имена начинаются с "todo.": сводка --metrics включает только их
+@Component
+@RequiredArgsConstructor
+public class TodoMetrics {
+    public static final String PREFIX = "todo.";
+
+    public static final String GIT_CLONE = "todo.git.clone";
+    public static final String GIT_CLONE_BYTES = "todo.git.clone.transferred";
+    public static final String GIT_CLEANUP = "todo.git.cleanup";
+
+    public static final String SCAN = "todo.scan";
+    public static final String SCAN_WALK = "todo.scan.walk";
+    public static final String FILES_VISITED = "todo.scan.files.visited";
+    // Тег reason: filter, gitignore, shard, unsupported, cache, prefilter
+    public static final String FILES_SKIPPED = "todo.scan.files.skipped";
+    // Таймер с тегом parser, его count - число разобранных файлов
+    public static final String FILES_PARSED = "todo.scan.files.parsed";
+    public static final String BYTES_READ = "todo.scan.read";
+    public static final String TODOS_FOUND = "todo.scan.todos";
+
+    // Тег outcome: success или failure, по одному замеру на каждую попытку
+    public static final String GITHUB_REQUESTS = "todo.github.requests";
+    public static final String GITHUB_RETRIES = "todo.github.retries";
+    public static final String GITHUB_RATE_LIMITED = "todo.github.rate.limited";
+    // Время ожидания токена в AdaptiveTokenBucket, включая паузы до сброса лимита
+    public static final String GITHUB_RATE_LIMIT_WAIT = "todo.github.rate.limit.wait";
+    // Исход каждой мутации внутри GraphQL-пачки, тег outcome: succeeded, failed, retried
+    public static final String GITHUB_GRAPHQL_ISSUES = "todo.github.graphql.issues";
+    // Выполненные операции сверки, тег operation: create, update, close, reopen
+    public static final String GITHUB_SYNC = "todo.github.sync";
+
+    private static final ClassValue<String> PARSER_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            String name = type.getSimpleName();
+            if (name.endsWith("TodoParser") && name.length() > "TodoParser".length()) {
+                name = name.substring(0, name.length() - "TodoParser".length());
+            }
+            return name.toLowerCase(Locale.ROOT);
+        }
+    };
+
+    private final MeterRegistry registry;
+
+    public Timer timer(String name, String... tags) {
+        return registry.timer(name, tags);
+    }
+
+    public Counter counter(String name, String... tags) {
+        return registry.counter(name, tags);
+    }
+
+    public Counter bytes(String name, String... tags) {
+        return Counter.builder(name)
+                .tags(tags)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public Counter syncOperation(SyncOperation.Type type) {
+        return registry.counter(GITHUB_SYNC, "operation", type.name().toLowerCase(Locale.ROOT));
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public static String parserName(TodoParser parser) {
+        return PARSER_NAMES.get(parser.getClass());
+    }
+
+    public void writeSummary(Path file) throws IOException {
+        List<Map<String, Object>> meters = new ArrayList<>();
+        registry.getMeters().stream()
+                .filter(meter -> meter.getId().getName().startsWith(PREFIX))
+                .sorted(Comparator.comparing((Meter meter) -> meter.getId().getName())
+                        .thenComparing(meter -> meter.getId().getTags().toString()))
+                .forEach(meter -> meters.add(describe(meter)));
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("timestamp", Instant.now().toString());
+        summary.put("meters", meters);
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        new ObjectMapper()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), summary);
+    }
+
+    private static Map<String, Object> describe(Meter meter) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", meter.getId().getName());
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (Tag tag : meter.getId().getTags()) {
+            tags.put(tag.getKey(), tag.getValue());
+        }
+        if (!tags.isEmpty()) {
+            result.put("tags", tags);
+        }
+
+        if (meter instanceof Timer timer) {
+            result.put("count", timer.count());
+            result.put("totalMillis", timer.totalTime(TimeUnit.MILLISECONDS));
+            result.put("meanMillis", timer.mean(TimeUnit.MILLISECONDS));
+            result.put("maxMillis", timer.max(TimeUnit.MILLISECONDS));
+        } else if (meter instanceof Counter counter) {
+            result.put(meter.getId().getBaseUnit() != null ? "total" : "count", (long) counter.count());
+        } else if (meter instanceof DistributionSummary summary) {
+            result.put("count", summary.count());
+            result.put("total", summary.totalAmount());
+            result.put("max", summary.max());
+        } else {
+            for (Measurement measurement : meter.measure()) {
+                result.put(measurement.getStatistic().getTagValueRepresentation(), measurement.getValue());
+            }
+        }
+        if (meter.getId().getBaseUnit() != null && !(meter instanceof Timer)) {
+            result.put("unit", meter.getId().getBaseUnit());
+        }
+        return result;
+    }
+}
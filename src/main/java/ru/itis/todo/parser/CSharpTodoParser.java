@@ -1,72 +1,99 @@
 package ru.itis.todo.parser;
 
 import org.springframework.stereotype.Component;
+import ru.itis.todo.api.TodoConfig;
 import ru.itis.todo.api.TodoItem;
 import ru.itis.todo.api.TodoParser;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
 public class CSharpTodoParser implements TodoParser {
-    private static final Pattern TODO_PATTERN = Pattern.compile(
-            "(?i)(?://|/\\*+)\\s*todo:?\\s*([^|]+)(?:\\|\\s*priority:\\s*(\\w+))?(?:\\|\\s*category:\\s*(\\w+))?(?:\\|\\s*assignee:\\s*(@\\w+))?(?:\\|\\s*tags:\\s*([\\w,]+))?");
+    private static final String VERSION = "3";
+
+    private final TodoSyntax syntax;
+
+    public CSharpTodoParser(TodoConfig config) {
+        this.syntax = TodoSyntax.of(config);
+    }
 
     @Override
-    public List<TodoItem> parseFile(Path filePath) {
-        List<TodoItem> items = new ArrayList<>();
-        try {
-            List<String> lines = Files.readAllLines(filePath);
+    public void parse(Path filePath, Consumer<TodoItem> consumer) {
+        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
             boolean inMultilineComment = false;
-            
-            for (int i = 0; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                
-                // Проверяем начало многострочного комментария
-                if (line.contains("/*")) {
-                    inMultilineComment = true;
-                }
-                
-                // Проверяем на наличие TODO в текущей строке
-                if (inMultilineComment || line.startsWith("//")) {
-                    Matcher matcher = TODO_PATTERN.matcher(line);
-                    if (matcher.find()) {
-                        String description = matcher.group(1).trim();
-                        String priority = matcher.group(2) != null ? matcher.group(2).toLowerCase() : TodoItem.DEFAULT_PRIORITY;
-                        String category = matcher.group(3) != null ? matcher.group(3).toLowerCase() : TodoItem.DEFAULT_CATEGORY;
-                        String assignee = matcher.group(4);
-                        String[] tags = matcher.group(5) != null ? matcher.group(5).split(",") : new String[0];
+            String rawLine;
+            int lineNumber = 0;
 
-                        items.add(TodoItem.builder()
-                                .description(description)
-                                .filePath(filePath)
-                                .lineNumber(i + 1)
-                                .priority(priority)
-                                .category(category)
-                                .assignee(assignee)
-                                .tags(tags)
-                                .build());
-                    }
-                }
-                
-                // Проверяем конец многострочного комментария
-                if (line.contains("*/")) {
-                    inMultilineComment = false;
+            while ((rawLine = reader.readLine()) != null) {
+                lineNumber++;
+                String line = rawLine.trim();
+                int commentStart = inMultilineComment ? 0 : commentStart(line);
+                if (commentStart < 0) {
+                    continue;
                 }
+
+                // Блочный комментарий может продолжаться на следующих строках
+                boolean block = inMultilineComment || line.charAt(commentStart - 1) == '*';
+                int commentEnd = block ? line.indexOf("*/", commentStart) : -1;
+                syntax.parse(line, commentStart, commentEnd >= 0 ? commentEnd : line.length(),
+                        filePath, lineNumber, consumer);
+                inMultilineComment = block && commentEnd < 0;
             }
         } catch (IOException e) {
             System.err.println("Ошибка при парсинге файла " + filePath + ": " + e.getMessage());
         }
-        return items;
+    }
+
+    // Позиция после "//" или "/*", открывающих комментарий. Как в JavaCommentLexer, строки "...", @"..."
+    // и символы '...' пропускаются: "// TODO" внутри литерала не комментарий
+    private static int commentStart(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '/' && i + 1 < line.length() && (line.charAt(i + 1) == '/' || line.charAt(i + 1) == '*')) {
+                return i + 2;
+            }
+            if (c == '"') {
+                i = skipLiteral(line, i + 1, '"', isVerbatim(line, i));
+            } else if (c == '\'') {
+                i = skipLiteral(line, i + 1, '\'', false);
+            }
+        }
+        return -1;
+    }
+
+    // @"...", $@"..." и @$"...": обратная косая черта не экранирует, кавычка удваивается
+    private static boolean isVerbatim(String line, int quote) {
+        return quote > 0 && line.charAt(quote - 1) == '@'
+                || quote > 1 && line.charAt(quote - 1) == '$' && line.charAt(quote - 2) == '@';
+    }
+
+    private static int skipLiteral(String line, int from, char quote, boolean verbatim) {
+        for (int i = from; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && !verbatim) {
+                i++;
+            } else if (c == quote) {
+                if (!verbatim || i + 1 >= line.length() || line.charAt(i + 1) != quote) {
+                    return i;
+                }
+                i++;
+            }
+        }
+        return line.length();
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("cs");
     }
 
     @Override
-    public boolean supportsFile(Path filePath) {
-        return filePath.toString().toLowerCase().endsWith(".cs");
+    public String getVersion() {
+        return VERSION + ":" + syntax.getVersion();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+package ru.itis.todo.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public class JavaCommentLexer {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder comment = new StringBuilder();
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    public JavaCommentLexer(Reader reader) {
+        this.reader = reader;
+    }
+
+    @FunctionalInterface
+    public interface CommentHandler {
+        // Содержимое передаётся без копирования и действительно только внутри вызова
+        void onComment(CharSequence content, int line);
+    }
+
+    public void tokenize(CommentHandler handler) throws IOException {
+        int c;
+        while ((c = next()) != -1) {
+            switch (c) {
+                case '/' -> {
+                    int p = peek();
+                    if (p == '/') {
+                        next();
+                        lineComment(handler);
+                    } else if (p == '*') {
+                        next();
+                        blockComment(handler);
+                    }
+                }
+                case '"' -> {
+                    if (peek() == '"') {
+                        next();
+                        if (peek() == '"') {
+                            next();
+                            textBlock();
+                        }
+                        // иначе это пустая строка ""
+                    } else {
+                        literal('"');
+                    }
+                }
+                case '\'' -> literal('\'');
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void lineComment(CommentHandler handler) throws IOException {
+        int startLine = line;
+        comment.setLength(0);
+        int c;
+        while ((c = peek()) != -1 && c != '\n' && c != '\r') {
+            comment.append((char) next());
+        }
+        handler.onComment(comment, startLine);
+    }
+
+    private void blockComment(CommentHandler handler) throws IOException {
+        int startLine = line;
+        comment.setLength(0);
+        // Как и в JavaParser, у javadoc-комментария "/**" не входит в содержимое
+        if (peek() == '*') {
+            next();
+            if (peek() == '/') {
+                next();
+                handler.onComment(comment, startLine);
+                return;
+            }
+        }
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '*' && peek() == '/') {
+                next();
+                break;
+            }
+            comment.append((char) c);
+        }
+        handler.onComment(comment, startLine);
+    }
+
+    private void literal(char quote) throws IOException {
+        int c;
+        while ((c = peek()) != -1 && c != '\n' && c != '\r') {
+            next();
+            if (c == '\\') {
+                next();
+            } else if (c == quote) {
+                return;
+            }
+        }
+    }
+
+    private void textBlock() throws IOException {
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '\\') {
+                next();
+            } else if (c == '"' && peek() == '"') {
+                next();
+                if (peek() == '"') {
+                    next();
+                    return;
+                }
+            }
+        }
+    }
+
+    private int next() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        char c = buffer[position++];
+        // "\r\n" считается одним переводом строки: учитываем его на '\n'
+        if (c == '\n' || (c == '\r' && peek() != '\n')) {
+            line++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -4,58 +4,72 @@ import com.github.javaparser.JavaParser;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.comments.Comment;
 import org.springframework.stereotype.Component;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoConfig.JavaParserMode;
 import ru.itis.todo.api.TodoItem;
 import ru.itis.todo.api.TodoParser;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
 public class JavaTodoParser implements TodoParser {
-    private static final Pattern TODO_PATTERN = Pattern.compile(
-        "(?i)todo:?\\s*([^|]+)(?:\\|\\s*priority:\\s*(\\w+))?(?:\\|\\s*category:\\s*(\\w+))?(?:\\|\\s*assignee:\\s*(@\\w+))?(?:\\|\\s*tags:\\s*([\\w,]+))?");
+    private static final String VERSION = "3";
+
+    private final JavaParserMode mode;
+    private final TodoSyntax syntax;
+
+    public JavaTodoParser(TodoConfig config) {
+        this.mode = config.getParsers() != null && config.getParsers().getJava() != null
+                ? config.getParsers().getJava()
+                : JavaParserMode.LEXER;
+        this.syntax = TodoSyntax.of(config);
+    }
 
     @Override
-    public List<TodoItem> parseFile(Path filePath) {
-        List<TodoItem> items = new ArrayList<>();
+    public void parse(Path filePath, Consumer<TodoItem> consumer) {
         try {
-            CompilationUnit cu = new JavaParser().parse(filePath).getResult().orElse(null);
-            if (cu != null) {
-                for (Comment comment : cu.getAllComments()) {
-                    String content = comment.getContent().trim();
-                    Matcher matcher = TODO_PATTERN.matcher(content);
-                    
-                    if (matcher.find()) {
-                        String description = matcher.group(1).trim();
-                        String priority = matcher.group(2) != null ? matcher.group(2).toLowerCase() : TodoItem.DEFAULT_PRIORITY;
-                        String category = matcher.group(3) != null ? matcher.group(3).toLowerCase() : TodoItem.DEFAULT_CATEGORY;
-                        String assignee = matcher.group(4);
-                        String[] tags = matcher.group(5) != null ? matcher.group(5).split(",") : new String[0];
-
-                        items.add(TodoItem.builder()
-                            .description(description)
-                            .filePath(filePath)
-                            .lineNumber(comment.getBegin().get().line)
-                            .priority(priority)
-                            .category(category)
-                            .assignee(assignee)
-                            .tags(tags)
-                            .build());
-                    }
-                }
+            if (mode == JavaParserMode.AST) {
+                parseAst(filePath, consumer);
+            } else {
+                parseLexer(filePath, consumer);
             }
         } catch (IOException e) {
             System.err.println("Ошибка при парсинге файла " + filePath + ": " + e.getMessage());
         }
-        return items;
+    }
+
+    private void parseLexer(Path filePath, Consumer<TodoItem> consumer) throws IOException {
+        // InputStreamReader заменяет некорректные байты, а не падает, как Files.newBufferedReader
+        try (Reader reader = new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8)) {
+            new JavaCommentLexer(reader).tokenize((content, line) ->
+                    syntax.parse(content, 0, content.length(), filePath, line, consumer));
+        }
+    }
+
+    private void parseAst(Path filePath, Consumer<TodoItem> consumer) throws IOException {
+        CompilationUnit cu = new JavaParser().parse(filePath).getResult().orElse(null);
+        if (cu != null) {
+            for (Comment comment : cu.getAllComments()) {
+                String content = comment.getContent();
+                syntax.parse(content, 0, content.length(), filePath, comment.getBegin().get().line, consumer);
+            }
+        }
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("java");
     }
 
     @Override
-    public boolean supportsFile(Path filePath) {
-        return filePath.toString().toLowerCase().endsWith(".java");
+    public String getVersion() {
+        return VERSION + ":" + mode + ":" + syntax.getVersion();
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package ru.itis.todo.parser;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public class MarkerMatcher {
+    public static final List<String> DEFAULT_MARKERS = List.of("TODO");
+    public static final MarkerMatcher DEFAULT = of(DEFAULT_MARKERS);
+
+    // Маркеры состоят из ASCII, поэтому автомат строится над 128 символами
+    private static final int ALPHABET = 128;
+
+    private final List<String> markers;
+    private final int[] transitions;
+    private final int[] output;
+    private final int[] outputLink;
+    private final int maxLength;
+
+    private MarkerMatcher(List<String> markers, int[] transitions, int[] output, int[] outputLink) {
+        this.markers = markers;
+        this.transitions = transitions;
+        this.output = output;
+        this.outputLink = outputLink;
+        this.maxLength = markers.stream().mapToInt(String::length).max().orElse(0);
+    }
+
+    public static MarkerMatcher of(Collection<String> configured) {
+        Set<String> unique = new LinkedHashSet<>();
+        for (String marker : configured) {
+            String normalized = marker == null ? "" : marker.trim().toUpperCase(Locale.ROOT);
+            if (normalized.isEmpty() || !normalized.chars().allMatch(c -> c > ' ' && c < ALPHABET)) {
+                throw new IllegalArgumentException("Marker must be a non-empty ASCII word: " + marker);
+            }
+            unique.add(normalized);
+        }
+        if (unique.isEmpty()) {
+            throw new IllegalArgumentException("At least one marker is required");
+        }
+        List<String> markers = List.copyOf(unique);
+
+        // Бор из маркеров без учёта регистра
+        List<int[]> trie = new ArrayList<>();
+        List<Integer> terminal = new ArrayList<>();
+        trie.add(emptyRow());
+        terminal.add(-1);
+        for (int index = 0; index < markers.size(); index++) {
+            int state = 0;
+            for (char c : markers.get(index).toLowerCase(Locale.ROOT).toCharArray()) {
+                if (trie.get(state)[c] < 0) {
+                    trie.add(emptyRow());
+                    terminal.add(-1);
+                    int child = trie.size() - 1;
+                    trie.get(state)[c] = child;
+                    if (Character.isLetter(c)) {
+                        trie.get(state)[Character.toUpperCase(c)] = child;
+                    }
+                }
+                state = trie.get(state)[c];
+            }
+            terminal.set(state, index);
+        }
+
+        // Суффиксные ссылки Ахо-Корасик превращают бор в ДКА: на каждый символ - один переход
+        int states = trie.size();
+        int[] transitions = new int[states * ALPHABET];
+        int[] fail = new int[states];
+        int[] output = new int[states];
+        int[] outputLink = new int[states];
+        Arrays.fill(outputLink, -1);
+        for (int state = 0; state < states; state++) {
+            output[state] = terminal.get(state);
+        }
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        boolean[] queued = new boolean[states];
+        for (int c = 0; c < ALPHABET; c++) {
+            int child = trie.get(0)[c];
+            transitions[c] = Math.max(child, 0);
+            if (child > 0 && !queued[child]) {
+                queued[child] = true;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int link = fail[state];
+            outputLink[state] = output[link] >= 0 ? link : outputLink[link];
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = trie.get(state)[c];
+                if (child < 0) {
+                    transitions[state * ALPHABET + c] = transitions[link * ALPHABET + c];
+                } else {
+                    transitions[state * ALPHABET + c] = child;
+                    if (!queued[child]) {
+                        queued[child] = true;
+                        fail[child] = transitions[link * ALPHABET + c];
+                        queue.add(child);
+                    }
+                }
+            }
+        }
+        return new MarkerMatcher(markers, transitions, output, outputLink);
+    }
+
+    public List<String> getMarkers() {
+        return markers;
+    }
+
+    public String getMarker(int index) {
+        return markers.get(index);
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    // Первое вхождение маркера отдельным словом в [from, to): (индекс маркера << 32) | начало, либо -1
+    public long find(CharSequence text, int from, int to) {
+        int state = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            state = c < ALPHABET ? transitions[state * ALPHABET + c] : 0;
+            for (int match = output[state] >= 0 ? state : outputLink[state]; match >= 0; match = outputLink[match]) {
+                int index = output[match];
+                int start = i + 1 - markers.get(index).length();
+                if ((start == 0 || !isWordChar(text.charAt(start - 1)))
+                        && (i + 1 == text.length() || !isWordChar(text.charAt(i + 1)))) {
+                    return ((long) index << 32) | start;
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Быстрая проверка сырых байтов без декодирования и без проверки границ слова
+    public boolean containsAny(ByteBuffer buffer) {
+        int state = 0;
+        for (int i = buffer.position(), limit = buffer.limit(); i < limit; i++) {
+            int c = buffer.get(i);
+            state = c >= 0 ? transitions[state * ALPHABET + c] : 0;
+            if (output[state] >= 0 || outputLink[state] >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static int[] emptyRow() {
+        int[] row = new int[ALPHABET];
+        Arrays.fill(row, -1);
+        return row;
+    }
+}
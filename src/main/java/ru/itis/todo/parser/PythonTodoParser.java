@@ -1,57 +1,97 @@
 package ru.itis.todo.parser;
 
 import org.springframework.stereotype.Component;
+import ru.itis.todo.api.TodoConfig;
 import ru.itis.todo.api.TodoItem;
 import ru.itis.todo.api.TodoParser;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Component
 public class PythonTodoParser implements TodoParser {
-    private static final Pattern TODO_PATTERN = Pattern.compile(
-            "(?i)#\\s*todo:?\\s*([^|]+)(?:\\|\\s*priority:\\s*(\\w+))?(?:\\|\\s*category:\\s*(\\w+))?(?:\\|\\s*assignee:\\s*(@\\w+))?(?:\\|\\s*tags:\\s*([\\w,]+))?");
+    private static final String VERSION = "3";
+
+    private final TodoSyntax syntax;
+
+    public PythonTodoParser(TodoConfig config) {
+        this.syntax = TodoSyntax.of(config);
+    }
 
     @Override
-    public List<TodoItem> parseFile(Path filePath) {
-        List<TodoItem> items = new ArrayList<>();
-        try {
-            List<String> lines = Files.readAllLines(filePath);
-            for (int i = 0; i < lines.size(); i++) {
-                String line = lines.get(i).trim();
-                Matcher matcher = TODO_PATTERN.matcher(line);
-
-                if (matcher.find()) {
-                    String description = matcher.group(1).trim();
-                    String priority = matcher.group(2) != null ? matcher.group(2).toLowerCase() : TodoItem.DEFAULT_PRIORITY;
-                    String category = matcher.group(3) != null ? matcher.group(3).toLowerCase() : TodoItem.DEFAULT_CATEGORY;
-                    String assignee = matcher.group(4);
-                    String[] tags = matcher.group(5) != null ? matcher.group(5).split(",") : new String[0];
-
-                    items.add(TodoItem.builder()
-                            .description(description)
-                            .filePath(filePath)
-                            .lineNumber(i + 1)
-                            .priority(priority)
-                            .category(category)
-                            .assignee(assignee)
-                            .tags(tags)
-                            .build());
+    public void parse(Path filePath, Consumer<TodoItem> consumer) {
+        boolean[] found = new boolean[1];
+        Consumer<TodoItem> tracking = item -> {
+            found[0] = true;
+            consumer.accept(item);
+        };
+        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
+            String rawLine;
+            int lineNumber = 0;
+            while ((rawLine = reader.readLine()) != null) {
+                lineNumber++;
+                found[0] = false;
+                // Маркер может идти после другой пометки: "x = 1  # noqa # TODO: ..." - пробуем каждый '#' комментария
+                for (int hash = commentStart(rawLine); hash >= 0 && !found[0]; hash = rawLine.indexOf('#', hash + 1)) {
+                    syntax.parse(rawLine, hash + 1, rawLine.length(), filePath, lineNumber, tracking);
                 }
             }
         } catch (IOException e) {
             System.err.println("Ошибка при парсинге файла " + filePath + ": " + e.getMessage());
         }
-        return items;
+    }
+
+    // '#' внутри строкового литерала ("#fff") комментарий не открывает
+    private static int commentStart(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '#') {
+                return i;
+            }
+            if (c == '"' || c == '\'') {
+                if (line.startsWith(String.valueOf(c).repeat(3), i)) {
+                    int end = line.indexOf(String.valueOf(c).repeat(3), i + 3);
+                    if (end < 0) {
+                        // Многострочная строка продолжается на следующих строках
+                        return -1;
+                    }
+                    i = end + 2;
+                } else {
+                    i = skipLiteral(line, i + 1, c);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static int skipLiteral(String line, int from, char quote) {
+        for (int i = from; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == quote) {
+                return i;
+            }
+        }
+        return line.length();
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Set.of("py");
+    }
+
+    @Override
+    public Set<String> getInterpreters() {
+        return Set.of("python");
     }
 
     @Override
-    public boolean supportsFile(Path filePath) {
-        return filePath.toString().toLowerCase().endsWith(".py");
+    public String getVersion() {
+        return VERSION + ":" + syntax.getVersion();
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,188 @@
+package ru.itis.todo.parser;
+
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.api.TodoValuePool;
+
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+public class TodoSyntax {
+    private static final String VERSION = "1";
+    private static final String[] NO_TAGS = new String[0];
+
+    private final MarkerMatcher markers;
+
+    public TodoSyntax(MarkerMatcher markers) {
+        this.markers = markers;
+    }
+
+    public static TodoSyntax of(TodoConfig config) {
+        return new TodoSyntax(config.getMarkers() == null || config.getMarkers().isEmpty()
+                ? MarkerMatcher.DEFAULT
+                : MarkerMatcher.of(config.getMarkers()));
+    }
+
+    public MarkerMatcher getMarkers() {
+        return markers;
+    }
+
+    public String getVersion() {
+        return VERSION + ":" + String.join(",", markers.getMarkers());
+    }
+
+    // Текст комментария [from, to) может занимать несколько строк: в каждой ищется свой TODO
+    public void parse(CharSequence text, int from, int to, Path filePath, int firstLine, Consumer<TodoItem> consumer) {
+        int lineStart = from;
+        int lineNumber = firstLine;
+        while (true) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && text.charAt(lineEnd) != '\n' && text.charAt(lineEnd) != '\r') {
+                lineEnd++;
+            }
+            TodoItem item = parseLine(text, lineStart, lineEnd, filePath, lineNumber);
+            if (item != null) {
+                consumer.accept(item);
+            }
+            if (lineEnd >= to) {
+                return;
+            }
+            lineStart = text.charAt(lineEnd) == '\r' && lineEnd + 1 < to && text.charAt(lineEnd + 1) == '\n'
+                    ? lineEnd + 2
+                    : lineEnd + 1;
+            lineNumber++;
+        }
+    }
+
+    private TodoItem parseLine(CharSequence text, int from, int to, Path filePath, int lineNumber) {
+        long match = markers.find(text, from, to);
+        if (match < 0) {
+            return null;
+        }
+        int markerIndex = (int) (match >>> 32);
+        int start = (int) match;
+        // Маркер должен открывать строку комментария: "// TODO", " * TODO", "# TODO", но не "// not a todo"
+        for (int i = from; i < start; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c) && c != '/' && c != '*' && c != '#') {
+                return null;
+            }
+        }
+
+        int position = start + markers.getMarker(markerIndex).length();
+        if (position < to && text.charAt(position) == ':') {
+            position++;
+        }
+        int descriptionEnd = indexOf(text, '|', position, to);
+        String description = trimmed(text, position, descriptionEnd);
+        if (description.isEmpty()) {
+            return null;
+        }
+
+        TodoItem item = TodoItem.builder()
+                .description(description)
+                .filePath(filePath)
+                .lineNumber(lineNumber)
+                .marker(markers.getMarker(markerIndex))
+                .priority(TodoItem.DEFAULT_PRIORITY)
+                .category(TodoItem.DEFAULT_CATEGORY)
+                .tags(NO_TAGS)
+                .build();
+
+        // Метаданные "| ключ: значение" разбираются после маркера в любом порядке
+        int segmentStart = descriptionEnd;
+        while (segmentStart < to) {
+            int segmentEnd = indexOf(text, '|', segmentStart + 1, to);
+            parseMetadata(text, segmentStart + 1, segmentEnd, item);
+            segmentStart = segmentEnd;
+        }
+        return item;
+    }
+
+    private static void parseMetadata(CharSequence text, int from, int to, TodoItem item) {
+        int colon = indexOf(text, ':', from, to);
+        if (colon == to) {
+            return;
+        }
+        int keyStart = skipWhitespace(text, from, colon);
+        int keyEnd = colon;
+        while (keyEnd > keyStart && Character.isWhitespace(text.charAt(keyEnd - 1))) {
+            keyEnd--;
+        }
+        int valueStart = skipWhitespace(text, colon + 1, to);
+
+        if (isKey(text, keyStart, keyEnd, "priority")) {
+            String value = wordValue(text, valueStart, to, false);
+            if (!value.isEmpty()) {
+                item.setPriority(TodoValuePool.priority(value));
+            }
+        } else if (isKey(text, keyStart, keyEnd, "category")) {
+            String value = wordValue(text, valueStart, to, false);
+            if (!value.isEmpty()) {
+                item.setCategory(TodoValuePool.category(value));
+            }
+        } else if (isKey(text, keyStart, keyEnd, "assignee")) {
+            if (valueStart < to && text.charAt(valueStart) == '@') {
+                String value = wordValue(text, valueStart + 1, to, false);
+                if (!value.isEmpty()) {
+                    item.setAssignee(TodoValuePool.intern("@" + value));
+                }
+            }
+        } else if (isKey(text, keyStart, keyEnd, "tags")) {
+            String value = wordValue(text, valueStart, to, true);
+            if (!value.isEmpty()) {
+                item.setTags(TodoValuePool.tags(value.split(",")));
+            }
+        }
+    }
+
+    private static boolean isKey(CharSequence text, int from, int to, String key) {
+        if (to - from != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (Character.toLowerCase(text.charAt(from + i)) != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String wordValue(CharSequence text, int from, int to, boolean allowComma) {
+        int end = from;
+        while (end < to) {
+            char c = text.charAt(end);
+            if (!(c < 128 && (Character.isLetterOrDigit(c) || c == '_') || allowComma && c == ',')) {
+                break;
+            }
+            end++;
+        }
+        return text.subSequence(from, end).toString();
+    }
+
+    private static String trimmed(CharSequence text, int from, int to) {
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        return text.subSequence(from, to).toString();
+    }
+
+    private static int skipWhitespace(CharSequence text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        return from;
+    }
+
+    private static int indexOf(CharSequence text, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == c) {
+                return i;
+            }
+        }
+        return to;
+    }
+}
@@ -0,0 +1,14 @@
+package ru.itis.todo.scan;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.itis.todo.api.TodoItem;
+
+import java.util.List;
+
+@Data
+@Builder
+public class DiffScanResult {
+    private List<TodoItem> items;
+    private List<TodoItem> removed;
+}
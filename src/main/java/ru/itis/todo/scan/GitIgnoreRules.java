@@ -0,0 +1,68 @@
+package ru.itis.todo.scan;
+
+import org.eclipse.jgit.ignore.IgnoreNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+class GitIgnoreRules {
+    private static final String FILE_NAME = ".gitignore";
+
+    private final Deque<Rules> stack = new ArrayDeque<>();
+
+    // Правила всех .gitignore от корня до relativeDir включительно - для путей, которые проверяются
+    // вне обхода дерева (события --watch). null - сам relativeDir или один из его родителей игнорируется
+    static GitIgnoreRules upTo(Path root, Path relativeDir) throws IOException {
+        GitIgnoreRules rules = new GitIgnoreRules();
+        Path current = root.relativize(root);
+        rules.enter(root, current);
+        if (relativeDir != null) {
+            for (Path name : relativeDir) {
+                current = current.resolve(name);
+                if (rules.isIgnored(current, true)) {
+                    return null;
+                }
+                rules.enter(root.resolve(current), current);
+            }
+        }
+        return rules;
+    }
+
+    void enter(Path dir, Path relativeDir) throws IOException {
+        Path file = dir.resolve(FILE_NAME);
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        IgnoreNode node = new IgnoreNode();
+        try (InputStream in = Files.newInputStream(file)) {
+            node.parse(in);
+        }
+        stack.push(new Rules(relativeDir, node));
+    }
+
+    void exit(Path relativeDir) {
+        if (!stack.isEmpty() && stack.peek().dir().equals(relativeDir)) {
+            stack.pop();
+        }
+    }
+
+    boolean isIgnored(Path relativePath, boolean directory) {
+        // Правила вложенного .gitignore важнее правил родительских каталогов
+        for (Rules rules : stack) {
+            String path = rules.dir().relativize(relativePath).toString().replace(File.separatorChar, '/');
+            Boolean ignored = rules.node().checkIgnored(path, directory);
+            if (ignored != null) {
+                return ignored;
+            }
+        }
+        return false;
+    }
+
+    private record Rules(Path dir, IgnoreNode node) {
+    }
+}
@@ -0,0 +1,152 @@
+package ru.itis.todo.scan;
+
+import org.springframework.stereotype.Component;
+import ru.itis.todo.api.TodoParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+public class ParserRegistry {
+    private static final int SHEBANG_LIMIT = 256;
+
+    private final List<TodoParser> parsers;
+    private final String[] extensions;
+    private final TodoParser[] extensionParsers;
+    private final int mask;
+    private final Map<String, TodoParser> interpreters = new HashMap<>();
+    private final List<TodoParser> fallback = new ArrayList<>();
+
+    public ParserRegistry(List<TodoParser> parsers) {
+        this.parsers = List.copyOf(parsers);
+
+        Map<String, TodoParser> byExtension = new HashMap<>();
+        for (TodoParser parser : this.parsers) {
+            // При совпадении расширений побеждает первый парсер, как и при прежнем переборе списка
+            for (String extension : parser.getExtensions()) {
+                byExtension.putIfAbsent(extension.toLowerCase(Locale.ROOT), parser);
+            }
+            for (String interpreter : parser.getInterpreters()) {
+                interpreters.putIfAbsent(interpreter, parser);
+            }
+            if (parser.getExtensions().isEmpty() && parser.getInterpreters().isEmpty()) {
+                fallback.add(parser);
+            }
+        }
+
+        // Открытая адресация по хэшу без учёта регистра: поиск идёт прямо по символам пути, без подстрок
+        int capacity = Integer.highestOneBit(Math.max(4, byExtension.size() * 4 - 1)) << 1;
+        extensions = new String[capacity];
+        extensionParsers = new TodoParser[capacity];
+        mask = capacity - 1;
+        for (Map.Entry<String, TodoParser> entry : byExtension.entrySet()) {
+            String extension = entry.getKey();
+            int slot = hash(extension, 0, extension.length()) & mask;
+            while (extensions[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            extensions[slot] = extension;
+            extensionParsers[slot] = entry.getValue();
+        }
+    }
+
+    public List<TodoParser> getParsers() {
+        return parsers;
+    }
+
+    public TodoParser find(Path path) {
+        String name = path.toString();
+        int nameStart = name.lastIndexOf(File.separatorChar) + 1;
+        int dot = name.lastIndexOf('.');
+        if (dot > nameStart) {
+            TodoParser parser = byExtension(name, dot + 1);
+            if (parser != null) {
+                return parser;
+            }
+        } else if (!interpreters.isEmpty()) {
+            TodoParser parser = byShebang(path);
+            if (parser != null) {
+                return parser;
+            }
+        }
+        for (TodoParser parser : fallback) {
+            if (parser.supportsFile(path)) {
+                return parser;
+            }
+        }
+        return null;
+    }
+
+    private TodoParser byExtension(String name, int from) {
+        int length = name.length() - from;
+        for (int slot = hash(name, from, name.length()) & mask; extensions[slot] != null; slot = (slot + 1) & mask) {
+            String extension = extensions[slot];
+            if (extension.length() == length && name.regionMatches(true, from, extension, 0, length)) {
+                return extensionParsers[slot];
+            }
+        }
+        return null;
+    }
+
+    private TodoParser byShebang(Path path) {
+        String interpreter = interpreter(path);
+        return interpreter != null ? interpreters.get(interpreter) : null;
+    }
+
+    static String interpreter(Path path) {
+        byte[] head;
+        try (InputStream in = Files.newInputStream(path)) {
+            head = in.readNBytes(SHEBANG_LIMIT);
+        } catch (IOException e) {
+            return null;
+        }
+        if (head.length < 2 || head[0] != '#' || head[1] != '!') {
+            return null;
+        }
+
+        String line = new String(head, 2, head.length - 2, StandardCharsets.US_ASCII);
+        int end = line.indexOf('\n');
+        String[] parts = (end >= 0 ? line.substring(0, end) : line).trim().split("\\s+");
+        String command = baseName(parts[0]);
+        // "#!/usr/bin/env -S python3 -u": интерпретатор - первый аргумент env, не являющийся опцией
+        if (command.equals("env")) {
+            command = null;
+            for (int i = 1; i < parts.length && command == null; i++) {
+                if (!parts[i].startsWith("-") && !parts[i].contains("=")) {
+                    command = baseName(parts[i]);
+                }
+            }
+            if (command == null) {
+                return null;
+            }
+        }
+        // python3.11 -> python
+        int versionStart = command.length();
+        while (versionStart > 0 && (Character.isDigit(command.charAt(versionStart - 1)) || command.charAt(versionStart - 1) == '.')) {
+            versionStart--;
+        }
+        return command.substring(0, versionStart).toLowerCase(Locale.ROOT);
+    }
+
+    private static String baseName(String command) {
+        return command.substring(command.lastIndexOf('/') + 1);
+    }
+
+    private static int hash(String value, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + Character.toLowerCase(value.charAt(i));
+        }
+        // Перемешивание старших битов, так как используется только младшая часть хэша
+        return hash ^ (hash >>> 16);
+    }
+}
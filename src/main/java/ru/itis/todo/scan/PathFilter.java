@@ -0,0 +1,115 @@
+package ru.itis.todo.scan;
+
+import ru.itis.todo.api.TodoConfig;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PathFilter {
+    private static final String GIT_DIR = ".git";
+
+    private final List<PathMatcher> include;
+    private final List<PathMatcher> exclude;
+    private final List<PathMatcher> excludeDirectories;
+
+    private PathFilter(List<PathMatcher> include, List<PathMatcher> exclude, List<PathMatcher> excludeDirectories) {
+        this.include = include;
+        this.exclude = exclude;
+        this.excludeDirectories = excludeDirectories;
+    }
+
+    public static PathFilter of(TodoConfig.FiltersConfig filters) {
+        if (filters == null) {
+            return new PathFilter(List.of(), List.of(), List.of());
+        }
+        return new PathFilter(compile(filters.getInclude()), compile(filters.getExclude()),
+                compileDirectories(filters.getExclude()));
+    }
+
+    public boolean accepts(Path relativePath) {
+        return (include.isEmpty() || matchesAny(include, relativePath)) && !matchesAny(exclude, relativePath);
+    }
+
+    public boolean acceptsDirectory(Path relativeDir) {
+        Path name = relativeDir.getFileName();
+        if (name != null && name.toString().equals(GIT_DIR)) {
+            return false;
+        }
+        return !matchesAny(excludeDirectories, relativeDir);
+    }
+
+    public boolean acceptsPath(Path relativePath) {
+        Path parent = relativePath.getParent();
+        if (parent != null) {
+            for (int i = 1; i <= parent.getNameCount(); i++) {
+                if (!acceptsDirectory(parent.subpath(0, i))) {
+                    return false;
+                }
+            }
+        }
+        return accepts(relativePath);
+    }
+
+    private static boolean matchesAny(List<PathMatcher> matchers, Path relativePath) {
+        for (PathMatcher matcher : matchers) {
+            if (matcher.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<PathMatcher> compile(List<String> patterns) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        if (patterns == null) {
+            return matchers;
+        }
+        for (String pattern : patterns) {
+            if (pattern.startsWith("glob:") || pattern.startsWith("regex:")) {
+                matchers.add(FileSystems.getDefault().getPathMatcher(pattern));
+            } else if (!pattern.contains("/")) {
+                matchers.add(nameMatcher(pattern));
+            } else {
+                matchers.add(floatingMatcher(pattern));
+            }
+        }
+        return matchers;
+    }
+
+    private static List<PathMatcher> compileDirectories(List<String> patterns) {
+        // Каталог отсекается целиком, только если шаблон исключает всё его содержимое
+        List<PathMatcher> matchers = new ArrayList<>();
+        if (patterns == null) {
+            return matchers;
+        }
+        for (String pattern : patterns) {
+            if (pattern.startsWith("glob:") || pattern.startsWith("regex:")) {
+                continue;
+            }
+            if (!pattern.contains("/")) {
+                // "node_modules" исключает каталог с таким именем на любой глубине, как в .gitignore
+                matchers.add(nameMatcher(pattern));
+            } else if (pattern.endsWith("/**") && pattern.length() > 3) {
+                matchers.add(floatingMatcher(pattern.substring(0, pattern.length() - 3)));
+            }
+        }
+        return matchers;
+    }
+
+    private static PathMatcher nameMatcher(String pattern) {
+        // Шаблон без каталогов ("*.java") проверяется по имени файла на любой глубине
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return path -> path.getFileName() != null && matcher.matches(path.getFileName());
+    }
+
+    private static PathMatcher floatingMatcher(String pattern) {
+        // "target/**" и "**/target/**" должны совпадать как в корне, так и во вложенных каталогах
+        String floating = pattern.startsWith("**/") ? pattern.substring(3) : "**/" + pattern;
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        PathMatcher floatingMatcher = FileSystems.getDefault().getPathMatcher("glob:" + floating);
+        return path -> matcher.matches(path) || floatingMatcher.matches(path);
+    }
+}
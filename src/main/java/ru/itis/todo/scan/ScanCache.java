@@ -0,0 +1,184 @@
+package ru.itis.todo.scan;
+
+import ru.itis.todo.api.TodoItem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ScanCache {
+    public static final String FILE_NAME = ".todo-scan-cache";
+
+    private static final int MAGIC = 0x54445343;
+    private static final int FORMAT_VERSION = 3;
+
+    private final Path cacheFile;
+    private final String salt;
+    private final Map<String, Entry> entries;
+    private final Map<String, Entry> updated = new ConcurrentHashMap<>();
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private ScanCache(Path cacheFile, String salt, Map<String, Entry> entries) {
+        this.cacheFile = cacheFile;
+        this.salt = salt;
+        this.entries = entries;
+    }
+
+    public static ScanCache open(Path cacheFile, String salt, boolean rebuild) {
+        if (rebuild || !Files.isRegularFile(cacheFile)) {
+            return new ScanCache(cacheFile, salt, Map.of());
+        }
+        try (TodoItemReader in = new TodoItemReader(Files.newInputStream(cacheFile), MAGIC)) {
+            if (in.readVarLong() != FORMAT_VERSION || !salt.equals(in.readText())) {
+                // Сменилась версия формата, парсеров или их шаблонов - кэш недействителен
+                return new ScanCache(cacheFile, salt, Map.of());
+            }
+            int count = (int) in.readVarLong();
+            Map<String, Entry> entries = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                Entry entry = readEntry(in);
+                entries.put(entry.key, entry);
+            }
+            in.verify();
+            return new ScanCache(cacheFile, salt, entries);
+        } catch (IOException e) {
+            System.err.println("Не удалось прочитать кэш сканирования " + cacheFile + ": " + e.getMessage());
+            return new ScanCache(cacheFile, salt, Map.of());
+        }
+    }
+
+    public List<TodoItem> get(String key, Path file, Path itemPath, BasicFileAttributes attrs) throws IOException {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.size == attrs.size() && entry.modified == attrs.lastModifiedTime().toMillis()) {
+            hits.incrementAndGet();
+            updated.put(key, entry);
+            return entry.itemsFor(itemPath);
+        }
+
+        byte[] hash = hash(file);
+        if (entry != null && Arrays.equals(entry.hash, hash)) {
+            // Файл не менялся, но у него новое время модификации (например, после клонирования)
+            hits.incrementAndGet();
+            updated.put(key, new Entry(key, attrs.size(), attrs.lastModifiedTime().toMillis(), hash, entry.items));
+            return entry.itemsFor(itemPath);
+        }
+
+        misses.incrementAndGet();
+        updated.put(key, new Entry(key, attrs.size(), attrs.lastModifiedTime().toMillis(), hash, null));
+        return null;
+    }
+
+    public void put(String key, List<TodoItem> items) {
+        updated.computeIfPresent(key, (k, entry) ->
+                new Entry(k, entry.size, entry.modified, entry.hash, List.copyOf(items)));
+    }
+
+    // Файл удалён: его запись не переносится в сохраняемый кэш
+    public void remove(String key) {
+        removed.add(key);
+    }
+
+    // complete - обойдено всё дерево, и записи файлов, которые не встретились, устарели. Иначе (--since, --watch, --shard) разобрана
+    // только часть файлов, и записи остальных переносятся без изменений
+    public void save(boolean complete) throws IOException {
+        Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        List<Entry> kept = new ArrayList<>();
+        if (!complete) {
+            for (Entry entry : entries.values()) {
+                if (!updated.containsKey(entry.key) && !removed.contains(entry.key)) {
+                    kept.add(entry);
+                }
+            }
+        }
+        for (Entry entry : updated.values()) {
+            if (entry.items != null) {
+                kept.add(entry);
+            }
+        }
+
+        try (TodoItemWriter out = new TodoItemWriter(Files.newOutputStream(tempFile), MAGIC)) {
+            out.writeVarLong(FORMAT_VERSION);
+            out.writeText(salt);
+            out.writeVarLong(kept.size());
+            for (Entry entry : kept) {
+                writeEntry(out, entry);
+            }
+        }
+        Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public int getHits() {
+        return hits.get();
+    }
+
+    public int getMisses() {
+        return misses.get();
+    }
+
+    private static byte[] hash(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeEntry(TodoItemWriter out, Entry entry) throws IOException {
+        // Ключ совпадает с путём в TODO этого файла, поэтому словарь строк хранит его один раз
+        out.writeString(entry.key);
+        out.writeVarLong(entry.size);
+        out.writeVarLong(entry.modified);
+        out.writeBytes(entry.hash);
+        out.writeItems(entry.items);
+    }
+
+    private static Entry readEntry(TodoItemReader in) throws IOException {
+        String key = in.readString();
+        long size = in.readVarLong();
+        long modified = in.readVarLong();
+        byte[] hash = in.readBytes(32);
+        return new Entry(key, size, modified, hash, in.readItems());
+    }
+
+    private record Entry(String key, long size, long modified, byte[] hash, List<TodoItem> items) {
+
+        List<TodoItem> itemsFor(Path file) {
+            List<TodoItem> result = new ArrayList<>(items.size());
+            // Строки и массивы меток общие (TodoValuePool), копируется только сам TodoItem
+            for (TodoItem item : items) {
+                result.add(TodoItem.builder()
+                        .description(item.getDescription())
+                        .filePath(file)
+                        .lineNumber(item.getLineNumber())
+                        .priority(item.getPriority())
+                        .category(item.getCategory())
+                        .assignee(item.getAssignee())
+                        .tags(item.getTags())
+                        .marker(item.getMarker())
+                        .build());
+            }
+            return result;
+        }
+    }
+}
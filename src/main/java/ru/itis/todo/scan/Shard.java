@@ -0,0 +1,42 @@
+package ru.itis.todo.scan;
+
+import ru.itis.todo.api.cli.TodoCliCommand;
+
+import java.io.File;
+import java.nio.file.Path;
+
+public record Shard(int index, int count) {
+    public static final Shard ALL = new Shard(1, 1);
+
+    public Shard {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Invalid shard " + index + "/" + count + ", expected i/N with 1 <= i <= N");
+        }
+    }
+
+    public static Shard of(TodoCliCommand command) {
+        if (command.getShardCount() == null) {
+            return ALL;
+        }
+        // Неверный --shard (2/1, 0/0) должен падать, а не превращаться в полное сканирование
+        Shard shard = new Shard(command.getShardIndex(), command.getShardCount());
+        return shard.equals(ALL) ? ALL : shard;
+    }
+
+    public boolean contains(Path relativePath) {
+        if (count == 1) {
+            return true;
+        }
+        // Хэш считается по пути с '/', чтобы разбиение совпадало на узлах с разными ОС
+        int hash = relativePath.toString().replace(File.separatorChar, '/').hashCode();
+        // Перемешивание битов выравнивает шарды для путей с общим префиксом
+        hash *= 0x9E3779B9;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, count) == index - 1;
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
@@ -0,0 +1,139 @@
+package ru.itis.todo.scan;
+
+import lombok.Builder;
+import lombok.Data;
+import ru.itis.todo.api.TodoItem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Результат сканирования одного шарда: TODO по отпечаткам, чтобы слияние не считало их заново
+@Data
+@Builder
+public class ShardResult {
+    // TDS2: после номера шарда записан признак полного сканирования
+    private static final int MAGIC = 0x54445332;
+    private static final int FINGERPRINT_BYTES = 8;
+
+    private Shard shard;
+    // Просмотрены все файлы шарда, а не только изменённые с --since: отсутствие TODO означает его удаление
+    private boolean complete;
+    private Map<String, TodoItem> items;
+    private Map<String, TodoItem> removed;
+
+    public static ShardResult of(Shard shard, boolean complete, List<TodoItem> items, List<TodoItem> removed) {
+        return ShardResult.builder()
+                .shard(shard)
+                .complete(complete)
+                .items(byFingerprint(items))
+                .removed(byFingerprint(removed))
+                .build();
+    }
+
+    public static ShardResult merge(List<ShardResult> results) {
+        if (results.isEmpty()) {
+            throw new IllegalArgumentException("No shard results to merge");
+        }
+        int count = results.get(0).getShard().count();
+        Map<String, TodoItem> items = new LinkedHashMap<>();
+        Map<String, TodoItem> removed = new LinkedHashMap<>();
+        boolean complete = true;
+        for (ShardResult result : results) {
+            if (result.getShard().count() != count) {
+                throw new IllegalArgumentException("Shard " + result.getShard() + " does not belong to a split into "
+                        + count + " shards");
+            }
+            complete &= result.isComplete();
+            // Один и тот же шард мог быть перезапущен в CI и загружен дважды
+            result.getItems().forEach(items::putIfAbsent);
+            result.getRemoved().forEach(removed::putIfAbsent);
+        }
+        // TODO, перенесённый в файл другого шарда, не считается удалённым
+        removed.keySet().removeAll(items.keySet());
+        return ShardResult.builder()
+                .shard(Shard.ALL)
+                .complete(complete)
+                .items(sorted(items))
+                .removed(sorted(removed))
+                .build();
+    }
+
+    public static ShardResult read(Path file) throws IOException {
+        try (TodoItemReader in = new TodoItemReader(Files.newInputStream(file), MAGIC)) {
+            Shard shard = new Shard((int) in.readVarLong(), (int) in.readVarLong());
+            ShardResult result = ShardResult.builder()
+                    .shard(shard)
+                    .complete(in.readVarLong() != 0)
+                    .items(readItems(in))
+                    .removed(readItems(in))
+                    .build();
+            in.verify();
+            return result;
+        } catch (IOException e) {
+            throw new IOException("Не удалось прочитать результат шарда " + file + ": " + e.getMessage(), e);
+        }
+    }
+
+    public void write(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (TodoItemWriter out = new TodoItemWriter(Files.newOutputStream(file), MAGIC)) {
+            out.writeVarLong(shard.index());
+            out.writeVarLong(shard.count());
+            out.writeVarLong(complete ? 1 : 0);
+            writeItems(out, items);
+            writeItems(out, removed);
+        }
+    }
+
+    public List<TodoItem> getItemList() {
+        return new ArrayList<>(items.values());
+    }
+
+    public List<TodoItem> getRemovedList() {
+        return new ArrayList<>(removed.values());
+    }
+
+    private static Map<String, TodoItem> byFingerprint(Collection<TodoItem> items) {
+        Map<String, TodoItem> result = new LinkedHashMap<>();
+        for (TodoItem item : items) {
+            result.putIfAbsent(item.fingerprint(), item);
+        }
+        return result;
+    }
+
+    private static Map<String, TodoItem> sorted(Map<String, TodoItem> items) {
+        Map<String, TodoItem> result = new LinkedHashMap<>();
+        items.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(TodoScanner.ITEM_ORDER))
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    private static void writeItems(TodoItemWriter out, Map<String, TodoItem> items) throws IOException {
+        out.writeVarLong(items.size());
+        for (Map.Entry<String, TodoItem> entry : items.entrySet()) {
+            out.writeBytes(HexFormat.of().parseHex(entry.getKey()));
+            out.writeItem(entry.getValue());
+        }
+    }
+
+    private static Map<String, TodoItem> readItems(TodoItemReader in) throws IOException {
+        int count = (int) in.readVarLong();
+        Map<String, TodoItem> items = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String fingerprint = HexFormat.of().formatHex(in.readBytes(FINGERPRINT_BYTES));
+            items.put(fingerprint, in.readItem());
+        }
+        return items;
+    }
+}
@@ -0,0 +1,173 @@
+package ru.itis.todo.scan;
+
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.api.TodoValuePool;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+public final class TodoItemReader implements Closeable {
+    private final InputStream in;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private int limit;
+    private final CRC32C checksum = new CRC32C();
+    private final List<String> strings = new ArrayList<>();
+    // Один объект Path на файл, а не на каждый TODO из него
+    private final Map<String, Path> paths = new HashMap<>();
+
+    public TodoItemReader(InputStream in, int magic) throws IOException {
+        this.in = in;
+        if (readFixedInt() != magic) {
+            throw new IOException("Unexpected file type");
+        }
+        long version = readVarLong();
+        if (version != TodoItemWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+    }
+
+    public List<TodoItem> readItems() throws IOException {
+        int count = readCount();
+        List<TodoItem> items = new ArrayList<>(Math.min(count, 1 << 16));
+        for (int i = 0; i < count; i++) {
+            items.add(readItem());
+        }
+        return items;
+    }
+
+    public TodoItem readItem() throws IOException {
+        String path = readString();
+        TodoItem.TodoItemBuilder item = TodoItem.builder()
+                .filePath(path != null ? paths.computeIfAbsent(path, Path::of) : null)
+                .description(readText())
+                .lineNumber((int) readVarLong())
+                .priority(TodoValuePool.priority(readString()))
+                .category(TodoValuePool.category(readString()))
+                .assignee(TodoValuePool.intern(readString()))
+                .marker(TodoValuePool.intern(readString()));
+        int tags = readCount();
+        if (tags > 0) {
+            String[] values = new String[tags - 1];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = readString();
+            }
+            item.tags(TodoValuePool.tags(values));
+        }
+        return item.build();
+    }
+
+    public String readString() throws IOException {
+        long ref = readVarLong();
+        if (ref == TodoItemWriter.NULL) {
+            return null;
+        }
+        if (ref == TodoItemWriter.NEW_STRING) {
+            String value = new String(readBytes(readCount()), StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+        long index = ref - TodoItemWriter.FIRST_REF;
+        if (index >= strings.size()) {
+            throw new IOException("Corrupted data: unknown string reference " + index);
+        }
+        return strings.get((int) index);
+    }
+
+    public String readText() throws IOException {
+        int length = readCount();
+        return length == 0 ? null : new String(readBytes(length - 1), StandardCharsets.UTF_8);
+    }
+
+    public long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupted data: varint is too long");
+    }
+
+    public byte[] readBytes(int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int copied = 0;
+        while (copied < length) {
+            if (position == limit) {
+                fill();
+            }
+            int chunk = Math.min(length - copied, limit - position);
+            System.arraycopy(buffer, position, bytes, copied, chunk);
+            position += chunk;
+            copied += chunk;
+        }
+        return bytes;
+    }
+
+    public void verify() throws IOException {
+        // Контрольная сумма стоит в конце, чтобы писатель не держал весь результат в памяти
+        checksum.update(buffer, 0, position);
+        int expected = (int) checksum.getValue();
+        byte[] trailer = new byte[4];
+        for (int i = 0; i < trailer.length; i++) {
+            if (position == limit) {
+                fill();
+            }
+            trailer[i] = buffer[position++];
+        }
+        if (readInt(trailer) != expected) {
+            throw new IOException("Checksum mismatch");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private int readCount() throws IOException {
+        long value = readVarLong();
+        if (value > Integer.MAX_VALUE) {
+            throw new IOException("Corrupted data: length " + value);
+        }
+        return (int) value;
+    }
+
+    private int readFixedInt() throws IOException {
+        return readInt(readBytes(4));
+    }
+
+    private int readByte() throws IOException {
+        if (position == limit) {
+            fill();
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private void fill() throws IOException {
+        // Буфер прочитан целиком - его содержимое входит в контрольную сумму
+        checksum.update(buffer, 0, limit);
+        position = 0;
+        limit = 0;
+        int read = in.read(buffer);
+        if (read <= 0) {
+            throw new EOFException();
+        }
+        limit = read;
+    }
+
+    private static int readInt(byte[] bytes) {
+        return (bytes[0] & 0xFF) << 24 | (bytes[1] & 0xFF) << 16 | (bytes[2] & 0xFF) << 8 | bytes[3] & 0xFF;
+    }
+}
@@ -0,0 +1,146 @@
+package ru.itis.todo.scan;
+
+import ru.itis.todo.api.TodoItem;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+// Компактный потоковый формат TodoItem: заголовок, записи с varint-числами и словарём строк, CRC32C в конце
+public final class TodoItemWriter implements Closeable {
+    public static final int FORMAT_VERSION = 1;
+
+    static final int NULL = 0;
+    static final int NEW_STRING = 1;
+    static final int FIRST_REF = 2;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+    private final CRC32C checksum = new CRC32C();
+    // Пути, приоритеты, категории, метки и исполнители повторяются - каждая строка пишется один раз
+    private final Map<String, Integer> strings = new HashMap<>();
+    private boolean closed;
+
+    public TodoItemWriter(OutputStream out, int magic) throws IOException {
+        this.out = out;
+        writeFixedInt(magic);
+        writeVarLong(FORMAT_VERSION);
+    }
+
+    public void writeItems(Collection<TodoItem> items) throws IOException {
+        writeVarLong(items.size());
+        for (TodoItem item : items) {
+            writeItem(item);
+        }
+    }
+
+    public void writeItem(TodoItem item) throws IOException {
+        writeString(item.getFilePath() != null ? item.getFilePath().toString().replace(File.separatorChar, '/') : null);
+        writeText(item.getDescription());
+        writeVarLong(item.getLineNumber());
+        writeString(item.getPriority());
+        writeString(item.getCategory());
+        writeString(item.getAssignee());
+        writeString(item.getMarker());
+        String[] tags = item.getTags();
+        if (tags == null) {
+            writeVarLong(0);
+        } else {
+            writeVarLong(tags.length + 1L);
+            for (String tag : tags) {
+                writeString(tag);
+            }
+        }
+    }
+
+    public void writeString(String value) throws IOException {
+        if (value == null) {
+            writeVarLong(NULL);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            writeVarLong(FIRST_REF + (long) index);
+            return;
+        }
+        strings.put(value, strings.size());
+        writeVarLong(NEW_STRING);
+        writeUtf8(value);
+    }
+
+    public void writeText(String value) throws IOException {
+        // Описания почти не повторяются, поэтому пишутся без словаря
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    public void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        writeByte((int) value);
+    }
+
+    public void writeBytes(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            flushBuffer();
+            if (bytes.length > buffer.length) {
+                checksum.update(bytes);
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try (out) {
+            flushBuffer();
+            int crc = (int) checksum.getValue();
+            out.write(new byte[]{(byte) (crc >>> 24), (byte) (crc >>> 16), (byte) (crc >>> 8), (byte) crc});
+        }
+    }
+
+    private void writeUtf8(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        writeBytes(bytes);
+    }
+
+    private void writeFixedInt(int value) throws IOException {
+        writeBytes(new byte[]{(byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value});
+    }
+
+    private void writeByte(int value) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    private void flushBuffer() throws IOException {
+        // Контрольная сумма считается блоками при сбросе буфера, а не побайтно
+        checksum.update(buffer, 0, position);
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.itis.todo.scan;
+
+import ru.itis.todo.parser.MarkerMatcher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class TodoPrefilter {
+    // Небольшие файлы дешевле прочитать в буфер: каждое отображение - это mmap/munmap и запись в max_map_count
+    private static final int MAP_THRESHOLD = 64 * 1024;
+    private static final long MAX_REGION = Integer.MAX_VALUE;
+
+    private final MarkerMatcher markers;
+
+    public TodoPrefilter(MarkerMatcher markers) {
+        this.markers = markers;
+    }
+
+    public boolean mayContain(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= MAP_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.allocate((int) size);
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // читаем до конца файла
+                }
+                return markers.containsAny(buffer.flip());
+            }
+
+            // Области перекрываются на длину маркера, чтобы не пропустить совпадение на границе
+            long position = 0;
+            while (true) {
+                long length = Math.min(MAX_REGION, size - position);
+                if (markers.containsAny(channel.map(FileChannel.MapMode.READ_ONLY, position, length))) {
+                    return true;
+                }
+                if (position + length >= size) {
+                    return false;
+                }
+                position += length - markers.getMaxLength() + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,378 @@
+package ru.itis.todo.scan;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.api.TodoParser;
+import ru.itis.todo.api.cli.TodoCliCommand;
+import ru.itis.todo.git.FileChange;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.parser.TodoSyntax;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class TodoScanner {
+    public static final Comparator<TodoItem> ITEM_ORDER = Comparator
+            .comparing(TodoItem::getFilePath)
+            .thenComparingInt(TodoItem::getLineNumber);
+
+    private final ParserRegistry parsers;
+    private final TodoConfig config;
+    private final TodoMetrics metrics;
+
+    public List<TodoItem> scan(Path sourceDir, TodoCliCommand command) throws IOException {
+        PathFilter filter = PathFilter.of(config.getFilters());
+        Shard shard = Shard.of(command);
+        GitIgnoreRules ignoreRules = config.getFilters() != null && config.getFilters().isGitignore()
+                ? new GitIgnoreRules()
+                : null;
+        List<Path> files = new ArrayList<>();
+        int[] visited = new int[1];
+        int[] skippedDirectories = new int[1];
+        // Счётчики пропусков собираются в массив и публикуются один раз после обхода
+        int[] skipped = new int[SkipReason.values().length];
+
+        long walkStarted = System.nanoTime();
+        Files.walkFileTree(sourceDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path relativeDir = sourceDir.relativize(dir);
+                // Исключённые каталоги (target, node_modules, .git) не обходятся вовсе
+                if (!dir.equals(sourceDir) && (!filter.acceptsDirectory(relativeDir)
+                        || ignoreRules != null && ignoreRules.isIgnored(relativeDir, true))) {
+                    skippedDirectories[0]++;
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (ignoreRules != null) {
+                    ignoreRules.enter(dir, relativeDir);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                visited[0]++;
+                Path relativePath = sourceDir.relativize(file);
+                if (!attrs.isRegularFile() || !filter.accepts(relativePath)) {
+                    skipped[SkipReason.FILTER.ordinal()]++;
+                } else if (!shard.contains(relativePath)) {
+                    skipped[SkipReason.SHARD.ordinal()]++;
+                } else if (ignoreRules != null && ignoreRules.isIgnored(relativePath, false)) {
+                    skipped[SkipReason.GITIGNORE.ordinal()]++;
+                } else {
+                    files.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                System.err.println("Не удалось прочитать " + file + ": " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                if (ignoreRules != null) {
+                    ignoreRules.exit(sourceDir.relativize(dir));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        metrics.timer(TodoMetrics.SCAN_WALK).record(System.nanoTime() - walkStarted, TimeUnit.NANOSECONDS);
+        metrics.counter(TodoMetrics.FILES_VISITED).increment(visited[0]);
+        for (SkipReason reason : SkipReason.values()) {
+            if (skipped[reason.ordinal()] > 0) {
+                skipped(reason).increment(skipped[reason.ordinal()]);
+            }
+        }
+
+        if (command.isVerbose()) {
+            System.out.printf("Просмотрено файлов: %d, отобрано по фильтрам: %d, пропущено каталогов: %d%n",
+                    visited[0], files.size(), skippedDirectories[0]);
+            if (shard != Shard.ALL) {
+                System.out.println("Сканируется шард " + shard);
+            }
+        }
+        // Шард видит только свою часть дерева: записи кэша остальных шардов сохраняются
+        return scanFiles(sourceDir, files, List.of(), shard == Shard.ALL, command);
+    }
+
+    public DiffScanResult scanChanges(Path sourceDir, List<FileChange> changes, TodoCliCommand command) throws IOException {
+        PathFilter filter = PathFilter.of(config.getFilters());
+        Shard shard = Shard.of(command);
+        metrics.counter(TodoMetrics.FILES_VISITED).increment(changes.size());
+        changes = changes.stream()
+                .filter(change -> {
+                    Path path = Path.of(change.getPath() != null ? change.getPath() : change.getOldPath());
+                    if (!filter.acceptsPath(path)) {
+                        skipped(SkipReason.FILTER).increment();
+                        return false;
+                    }
+                    if (!shard.contains(path)) {
+                        skipped(SkipReason.SHARD).increment();
+                        return false;
+                    }
+                    return true;
+                })
+                .toList();
+        List<Path> files = new ArrayList<>();
+        List<Path> missing = new ArrayList<>();
+        for (FileChange change : changes) {
+            if (change.getOldPath() != null && !change.getOldPath().equals(change.getPath())) {
+                // Файл удалён или переименован: запись кэша по старому пути больше не нужна
+                missing.add(Path.of(change.getOldPath()));
+            }
+            if (change.getPath() != null) {
+                Path file = sourceDir.resolve(change.getPath());
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                } else {
+                    missing.add(Path.of(change.getPath()));
+                }
+            }
+        }
+        if (command.isVerbose()) {
+            System.out.printf("Изменено файлов: %d, из них для разбора: %d%n", changes.size(), files.size());
+        }
+
+        List<TodoItem> items = scanFiles(sourceDir, files, missing, command);
+        return DiffScanResult.builder()
+                .items(items)
+                .removed(findRemovedTodos(changes, items))
+                .build();
+    }
+
+    // Разбирает только переданные файлы: записи кэша остальных файлов сохраняются, missing - удалённые файлы
+    // относительно sourceDir, их записи удаляются
+    public List<TodoItem> scanFiles(Path sourceDir, List<Path> files, List<Path> missing, TodoCliCommand command)
+            throws IOException {
+        return scanFiles(sourceDir, files, missing, false, command);
+    }
+
+    private List<TodoItem> scanFiles(Path sourceDir, List<Path> files, List<Path> missing, boolean complete,
+                                     TodoCliCommand command) throws IOException {
+        ScanCache cache = command.isNoCache()
+                ? null
+                : ScanCache.open(cacheFile(command), cacheSalt(), command.isRebuildCache());
+        TodoPrefilter prefilter = new TodoPrefilter(TodoSyntax.of(config).getMarkers());
+        ScanContext context = new ScanContext(sourceDir, command, cache, prefilter, new AtomicInteger());
+
+        long started = System.nanoTime();
+        List<TodoItem> items = command.getThreads() > 1
+                ? scanParallel(files, context)
+                : scanSequential(files, context);
+        metrics.timer(TodoMetrics.SCAN).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        if (cache != null) {
+            for (Path path : missing) {
+                cache.remove(cacheKey(path));
+            }
+            try {
+                cache.save(complete);
+            } catch (IOException e) {
+                System.err.println("Не удалось сохранить кэш сканирования: " + e.getMessage());
+            }
+            if (command.isVerbose()) {
+                System.out.printf("Кэш сканирования: %d файлов без изменений, %d разобрано заново%n",
+                        cache.getHits(), cache.getMisses());
+            }
+        }
+
+        if (command.isVerbose()) {
+            System.out.printf("Префильтр пропустил %d файлов без маркеров TODO%n", context.skipped().get());
+        }
+
+        // Порядок результатов не должен зависеть от режима и порядка обхода
+        items.sort(ITEM_ORDER);
+        return items;
+    }
+
+    private List<TodoItem> findRemovedTodos(List<FileChange> changes, List<TodoItem> items) throws IOException {
+        Set<String> remaining = new HashSet<>();
+        for (TodoItem item : items) {
+            remaining.add(item.getFilePath() + "\0" + item.getDescription());
+        }
+
+        List<TodoItem> removed = new ArrayList<>();
+        for (FileChange change : changes) {
+            if (!change.hasDeletions()) {
+                continue;
+            }
+            Path oldPath = Path.of(change.getOldPath());
+            Path newPath = change.getPath() != null ? Path.of(change.getPath()) : null;
+            TodoParser parser = findParser(oldPath);
+            if (parser == null) {
+                continue;
+            }
+
+            // Парсеры работают с файлами, поэтому старая версия временно выгружается на диск
+            Path tempDir = Files.createTempDirectory("todo-diff-");
+            try {
+                Path oldFile = tempDir.resolve(oldPath.getFileName());
+                Files.write(oldFile, change.getOldContent());
+                for (TodoItem item : parser.parseFile(oldFile)) {
+                    if (change.isDeletedLine(item.getLineNumber())
+                            && !remaining.contains(newPath + "\0" + item.getDescription())) {
+                        item.setFilePath(oldPath);
+                        removed.add(item);
+                    }
+                }
+                Files.delete(oldFile);
+            } finally {
+                Files.deleteIfExists(tempDir);
+            }
+        }
+        removed.sort(ITEM_ORDER);
+        return removed;
+    }
+
+    private List<TodoItem> scanSequential(List<Path> files, ScanContext context) throws IOException {
+        List<TodoItem> items = new ArrayList<>();
+        for (Path path : files) {
+            items.addAll(parseFile(path, context));
+        }
+        return items;
+    }
+
+    private List<TodoItem> scanParallel(List<Path> files, ScanContext context) throws IOException {
+        List<Future<List<TodoItem>>> results = new ArrayList<>(files.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(context.command().getThreads(),
+                Thread.ofVirtual().name("todo-scan-", 0).factory())) {
+            for (Path path : files) {
+                results.add(executor.submit(() -> parseFile(path, context)));
+            }
+        }
+
+        List<TodoItem> items = new ArrayList<>();
+        for (Future<List<TodoItem>> result : results) {
+            try {
+                items.addAll(result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Сканирование прервано", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Ошибка при сканировании: " + e.getCause().getMessage(), e.getCause());
+            }
+        }
+        return items;
+    }
+
+    private List<TodoItem> parseFile(Path path, ScanContext context) throws IOException {
+        TodoParser parser = findParser(path);
+        if (parser == null) {
+            skipped(SkipReason.UNSUPPORTED).increment();
+            return List.of();
+        }
+        String parserName = TodoMetrics.parserName(parser);
+
+        // В результатах пути относительно корня репозитория: они попадают в issues и отпечатки
+        Path relativePath = context.sourceDir().relativize(path);
+        ScanCache cache = context.cache();
+        String key = null;
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        if (cache != null) {
+            key = cacheKey(relativePath);
+            List<TodoItem> cached = cache.get(key, path, relativePath, attrs);
+            if (cached != null) {
+                skipped(SkipReason.CACHE).increment();
+                metrics.counter(TodoMetrics.TODOS_FOUND, "parser", parserName).increment(cached.size());
+                return cached;
+            }
+        }
+
+        // Дешёвая проверка байтов отсекает большинство файлов до построения AST и прогона регулярок
+        metrics.bytes(TodoMetrics.BYTES_READ, "parser", parserName).increment(attrs.size());
+        if (!context.prefilter().mayContain(path)) {
+            context.skipped().incrementAndGet();
+            skipped(SkipReason.PREFILTER).increment();
+            if (cache != null) {
+                cache.put(key, List.of());
+            }
+            return List.of();
+        }
+
+        if (context.command().isVerbose()) {
+            System.out.println("Обрабатываем файл: " + path);
+        }
+        List<TodoItem> items = new ArrayList<>();
+        long started = System.nanoTime();
+        parser.parse(path, item -> {
+            item.setFilePath(relativePath);
+            items.add(item);
+        });
+        metrics.timer(TodoMetrics.FILES_PARSED, "parser", parserName).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        metrics.counter(TodoMetrics.TODOS_FOUND, "parser", parserName).increment(items.size());
+        if (cache != null) {
+            cache.put(key, items);
+        }
+        return items;
+    }
+
+    private static String cacheKey(Path relativePath) {
+        return relativePath.toString().replace(File.separatorChar, '/');
+    }
+
+    private TodoParser findParser(Path path) {
+        return parsers.find(path);
+    }
+
+    private Counter skipped(SkipReason reason) {
+        return metrics.counter(TodoMetrics.FILES_SKIPPED, "reason", reason.tag);
+    }
+
+    // Рабочая копия хранит кэш у себя. Клон временный, поэтому его кэш лежит в --cache-dir (по умолчанию текущий
+    // каталог) под именем репозитория: запуски для разных --repo не перезаписывают кэш друг друга
+    private Path cacheFile(TodoCliCommand command) {
+        if (command.isWorkingTree()) {
+            Path dir = command.getCacheDir() != null ? command.getCacheDir() : command.getSourceDir();
+            return dir.resolve(ScanCache.FILE_NAME);
+        }
+        Path dir = command.getCacheDir() != null ? command.getCacheDir() : Path.of(".");
+        return dir.resolve(ScanCache.FILE_NAME + "-" + config.getGithub().getRepo().replace('/', '-'));
+    }
+
+    private String cacheSalt() {
+        return parsers.getParsers().stream()
+                .map(parser -> parser.getClass().getName() + "=" + parser.getVersion())
+                .sorted()
+                .collect(Collectors.joining(";"));
+    }
+
+    private enum SkipReason {
+        FILTER("filter"), GITIGNORE("gitignore"), SHARD("shard"), UNSUPPORTED("unsupported"),
+        CACHE("cache"), PREFILTER("prefilter");
+
+        private final String tag;
+
+        SkipReason(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private record ScanContext(Path sourceDir, TodoCliCommand command, ScanCache cache, TodoPrefilter prefilter,
+                               AtomicInteger skipped) {
+    }
+}
@@ -0,0 +1,278 @@
+package ru.itis.todo.scan;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.itis.todo.api.IssueCreator;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.api.cli.TodoCliCommand;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class TodoWatcher {
+    // Если правки идут без пауз, синхронизация всё равно выполняется не реже, чем раз в столько интервалов
+    private static final int MAX_DEBOUNCE_INTERVALS = 5;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    private final TodoScanner todoScanner;
+    private final IssueCreator issueCreator;
+    private final TodoConfig config;
+    private final TodoMetrics metrics;
+
+    public void watch(Path sourceDir, TodoCliCommand command) throws IOException, InterruptedException {
+        PathFilter filter = PathFilter.of(config.getFilters());
+        boolean gitignore = config.getFilters() != null && config.getFilters().isGitignore();
+        Map<Path, List<TodoItem>> index = new HashMap<>();
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            Map<WatchKey, Path> directories = new HashMap<>();
+            // Каталоги регистрируются до первого сканирования, чтобы не потерять правки, сделанные во время него
+            register(watchService, directories, sourceDir, sourceDir, filter, gitignore, null);
+
+            List<TodoItem> items = todoScanner.scan(sourceDir, command);
+            for (TodoItem item : items) {
+                index.computeIfAbsent(item.getFilePath(), path -> new ArrayList<>()).add(item);
+            }
+            System.out.printf("Найдено %d TODO комментариев, отслеживаем изменения в %s (каталогов: %d)%n",
+                    items.size(), sourceDir, directories.size());
+            sync(ScanSnapshot.full(items), items, command);
+
+            Set<Path> pending = new LinkedHashSet<>();
+            boolean rescan = false;
+            long firstPendingAt = 0;
+            long debounce = command.getDebounceMillis();
+            while (true) {
+                WatchKey key;
+                try {
+                    key = pending.isEmpty() && !rescan
+                            ? watchService.take()
+                            : watchService.poll(debounce, TimeUnit.MILLISECONDS);
+                } catch (ClosedWatchServiceException e) {
+                    return;
+                }
+
+                boolean overdue = (!pending.isEmpty() || rescan)
+                        && System.currentTimeMillis() - firstPendingAt >= debounce * MAX_DEBOUNCE_INTERVALS;
+                if (key == null || overdue) {
+                    if (rescan) {
+                        rescan(sourceDir, index, command);
+                    } else {
+                        update(sourceDir, pending, index, command);
+                    }
+                    pending.clear();
+                    rescan = false;
+                    if (key == null) {
+                        continue;
+                    }
+                }
+
+                if (pending.isEmpty() && !rescan) {
+                    firstPendingAt = System.currentTimeMillis();
+                }
+                Path dir = directories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) {
+                        // События потеряны - восстанавливаем индекс полным сканированием
+                        rescan = true;
+                        continue;
+                    }
+                    Path path = dir.resolve((Path) event.context());
+                    Path relativePath = sourceDir.relativize(path);
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                        register(watchService, directories, sourceDir, path, filter, gitignore, pending);
+                    } else if (isWatched(relativePath, filter) && !(gitignore && isIgnored(sourceDir, relativePath))) {
+                        pending.add(relativePath);
+                    }
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        // Для удалённого каталога приходит одно событие, а не по событию на каждый файл
+                        for (Path known : index.keySet()) {
+                            if (known.startsWith(relativePath)) {
+                                pending.add(known);
+                            }
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    directories.remove(key);
+                }
+            }
+        }
+    }
+
+    private void update(Path sourceDir, Set<Path> changed, Map<Path, List<TodoItem>> index, TodoCliCommand command)
+            throws IOException {
+        List<Path> files = new ArrayList<>();
+        List<Path> missing = new ArrayList<>();
+        for (Path relativePath : changed) {
+            Path file = sourceDir.resolve(relativePath);
+            if (Files.isRegularFile(file)) {
+                files.add(file);
+            } else {
+                missing.add(relativePath);
+            }
+        }
+        // В кэше сканирования обновляются записи только этих файлов, остальные сохраняются: следующий запуск
+        // без --watch не разбирает заново ни их, ни файлы, не менявшиеся во время наблюдения
+        List<TodoItem> parsed = todoScanner.scanFiles(sourceDir, files, missing, command);
+
+        Map<Path, List<TodoItem>> updated = new HashMap<>();
+        for (TodoItem item : parsed) {
+            updated.computeIfAbsent(item.getFilePath(), path -> new ArrayList<>()).add(item);
+        }
+        List<TodoItem> before = new ArrayList<>();
+        List<TodoItem> after = new ArrayList<>();
+        for (Path relativePath : changed) {
+            List<TodoItem> old = index.remove(relativePath);
+            if (old != null) {
+                before.addAll(old);
+            }
+            List<TodoItem> current = updated.get(relativePath);
+            if (current != null) {
+                index.put(relativePath, current);
+                after.addAll(current);
+            }
+        }
+
+        System.out.printf("[%s] Изменено файлов: %d%n", LocalTime.now().format(TIME), changed.size());
+        // Сверяются все TODO изменённых файлов: перенесённый или отредактированный TODO обновляет свой issue
+        sync(ScanSnapshot.partial(after, difference(before, after)), difference(after, before), command);
+    }
+
+    private void rescan(Path sourceDir, Map<Path, List<TodoItem>> index, TodoCliCommand command) throws IOException {
+        List<TodoItem> before = index.values().stream().flatMap(List::stream).toList();
+        List<TodoItem> after = todoScanner.scan(sourceDir, command);
+        index.clear();
+        for (TodoItem item : after) {
+            index.computeIfAbsent(item.getFilePath(), path -> new ArrayList<>()).add(item);
+        }
+        System.out.printf("[%s] Полное пересканирование: %d TODO%n", LocalTime.now().format(TIME), after.size());
+        sync(ScanSnapshot.full(after), difference(after, before), command);
+    }
+
+    private void sync(ScanSnapshot snapshot, List<TodoItem> added, TodoCliCommand command) {
+        for (TodoItem item : snapshot.removed()) {
+            System.out.printf("  - удалён TODO: %s (%s:%d)%n", item.getDescription(), item.getFilePath(), item.getLineNumber());
+        }
+        if (command.isDryRun()) {
+            if (!added.isEmpty()) {
+                int created = issueCreator.createIssues(added, true);
+                System.out.printf("Будет создано %d issues%n", created);
+            }
+        } else if (snapshot.complete() || !snapshot.items().isEmpty() || !snapshot.removed().isEmpty()) {
+            // Сверка пачкой за всё окно ожидания; неизменённые TODO не порождают запросов
+            SyncSummary summary = issueCreator.sync(snapshot, false);
+            if (summary.total() > 0 || summary.getFailed() > 0) {
+                System.out.printf("Issues: %s%n", summary);
+            }
+        }
+        if (command.getMetricsFile() != null) {
+            // Процесс не завершается, поэтому сводка перезаписывается после каждой синхронизации
+            try {
+                metrics.writeSummary(command.getMetricsFile());
+            } catch (IOException e) {
+                System.err.println("Не удалось записать метрики: " + e.getMessage());
+            }
+        }
+    }
+
+    private static List<TodoItem> difference(List<TodoItem> items, List<TodoItem> excluded) {
+        Set<String> known = new HashSet<>();
+        for (TodoItem item : excluded) {
+            known.add(item.fingerprint());
+        }
+        return items.stream()
+                .filter(item -> !known.contains(item.fingerprint()))
+                .toList();
+    }
+
+    private static boolean isWatched(Path relativePath, PathFilter filter) {
+        // Собственный кэш сканирования меняется при каждой синхронизации и не должен её запускать
+        Path name = relativePath.getFileName();
+        return name != null && !name.toString().startsWith(ScanCache.FILE_NAME) && filter.acceptsPath(relativePath);
+    }
+
+    private static boolean isIgnored(Path sourceDir, Path relativePath) throws IOException {
+        // Те же правила, что и при полном сканировании: иначе правка игнорируемого файла создала бы issue,
+        // который следующее полное пересканирование закрыло бы снова
+        GitIgnoreRules rules = GitIgnoreRules.upTo(sourceDir, relativePath.getParent());
+        return rules == null || rules.isIgnored(relativePath, false);
+    }
+
+    private static void register(WatchService watchService, Map<WatchKey, Path> directories, Path sourceDir, Path start,
+                                 PathFilter filter, boolean gitignore, Set<Path> created) throws IOException {
+        Path relativeStart = sourceDir.relativize(start);
+        GitIgnoreRules ignoreRules = !gitignore ? null
+                : start.equals(sourceDir) ? new GitIgnoreRules()
+                : GitIgnoreRules.upTo(sourceDir, relativeStart.getParent());
+        if (gitignore && ignoreRules == null) {
+            return;
+        }
+        Files.walkFileTree(start, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path relativeDir = sourceDir.relativize(dir);
+                // Игнорируемые каталоги (.venv, сгенерированный код) не регистрируются и не расходуют лимит наблюдений ОС
+                if (!dir.equals(sourceDir) && (!filter.acceptsDirectory(relativeDir)
+                        || ignoreRules != null && ignoreRules.isIgnored(relativeDir, true))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (ignoreRules != null) {
+                    ignoreRules.enter(dir, relativeDir);
+                }
+                directories.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                // Файлы в новом каталоге могли появиться до его регистрации
+                Path relativePath = sourceDir.relativize(file);
+                if (created != null && isWatched(relativePath, filter)
+                        && (ignoreRules == null || !ignoreRules.isIgnored(relativePath, false))) {
+                    created.add(relativePath);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                if (ignoreRules != null) {
+                    ignoreRules.exit(sourceDir.relativize(dir));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
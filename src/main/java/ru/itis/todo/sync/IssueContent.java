@@ -0,0 +1,36 @@
+package ru.itis.todo.sync;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+// Issue, отрисованный из TODO по шаблонам: тело уже содержит маркер отпечатка, но ещё не маркер синхронизации
+public record IssueContent(String title, String body, List<String> labels) {
+
+    public String hash() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(title.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(body.getBytes(StandardCharsets.UTF_8));
+            for (String label : labels) {
+                digest.update((byte) 0);
+                digest.update(label.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public SyncState state(boolean closed) {
+        return new SyncState(hash(), labels, closed);
+    }
+
+    // Тело, которое отправляется в GitHub: содержимое и маркер синхронизации с его хэшем
+    public String markedBody() {
+        return body + "\n" + state(false).marker();
+    }
+}
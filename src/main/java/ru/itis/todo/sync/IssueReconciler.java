@@ -0,0 +1,121 @@
+package ru.itis.todo.sync;
+
+import ru.itis.todo.api.TodoItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+// Трёхсторонняя сверка: результат сканирования, issues инструмента и их состояние на момент прошлой
+// синхронизации (SyncState в теле issue). Отпечаток TODO не включает номер строки, поэтому перенос TODO
+// даёт обновление issue, а не новый issue. Неизменённые TODO не порождают операций и запросов
+public final class IssueReconciler {
+    private IssueReconciler() {
+    }
+
+    public static List<SyncOperation> plan(ScanSnapshot snapshot, Collection<ManagedIssue> issues,
+                                           Function<TodoItem, IssueContent> render) {
+        Map<String, ManagedIssue> byFingerprint = new HashMap<>();
+        for (ManagedIssue issue : issues) {
+            // Если у отпечатка несколько issues, сверяется открытый
+            byFingerprint.merge(issue.fingerprint(), issue, (a, b) -> a.open() ? a : b);
+        }
+        Map<String, TodoItem> desired = new LinkedHashMap<>();
+        for (TodoItem item : snapshot.items()) {
+            desired.putIfAbsent(item.fingerprint(), item);
+        }
+
+        List<SyncOperation> operations = new ArrayList<>();
+        for (Map.Entry<String, TodoItem> entry : desired.entrySet()) {
+            TodoItem item = entry.getValue();
+            ManagedIssue issue = byFingerprint.get(entry.getKey());
+            IssueContent content = render.apply(item);
+            if (issue == null) {
+                operations.add(new SyncOperation(SyncOperation.Type.CREATE, item, null,
+                        content.title(), content.markedBody(), content.labels()));
+            } else if (issue.open()) {
+                if (isChanged(issue, content)) {
+                    operations.add(new SyncOperation(SyncOperation.Type.UPDATE, item, issue,
+                            content.title(), content.markedBody(), mergeLabels(issue, content)));
+                }
+            } else if (issue.syncState() != null && issue.syncState().closed()) {
+                // Переоткрываются только issues, закрытые самим инструментом: закрытый человеком issue
+                // (например, "не будем делать") остаётся закрытым, даже если TODO ещё в коде
+                operations.add(new SyncOperation(SyncOperation.Type.REOPEN, item, issue,
+                        content.title(), content.markedBody(), mergeLabels(issue, content)));
+            }
+        }
+
+        Set<String> removed = new HashSet<>();
+        for (TodoItem item : snapshot.removed()) {
+            removed.add(item.fingerprint());
+        }
+        for (ManagedIssue issue : byFingerprint.values()) {
+            if (issue.open() && !desired.containsKey(issue.fingerprint())
+                    && (snapshot.complete() || removed.contains(issue.fingerprint()))) {
+                SyncState state = issue.syncState() != null
+                        ? issue.syncState()
+                        : new SyncState("", List.of(), false);
+                operations.add(new SyncOperation(SyncOperation.Type.CLOSE, null, issue,
+                        null, state.withClosed(true).applyTo(issue.body()), null));
+            }
+        }
+        return operations;
+    }
+
+    // База известна - изменился ли TODO с прошлой синхронизации; issue без маркера (созданный до появления сверки)
+    // сравнивается с отрисованным TODO напрямую
+    static boolean isChanged(ManagedIssue issue, IssueContent content) {
+        SyncState state = issue.syncState();
+        if (state != null) {
+            return !state.hash().equals(content.hash());
+        }
+        return !content.title().equals(issue.title())
+                || !content.body().equals(SyncState.strip(issue.body()))
+                || !keys(issue.labels()).containsAll(keys(content.labels()));
+    }
+
+    // Метки людей сохраняются; убираются только метки, которые инструмент поставил в прошлый раз и больше не ставит
+    static List<String> mergeLabels(ManagedIssue issue, IssueContent content) {
+        Set<String> desired = keys(content.labels());
+        Set<String> stale = new HashSet<>();
+        SyncState state = issue.syncState();
+        if (state != null) {
+            for (String label : state.labels()) {
+                if (!desired.contains(key(label))) {
+                    stale.add(key(label));
+                }
+            }
+        }
+        Map<String, String> labels = new LinkedHashMap<>();
+        for (String label : issue.labels()) {
+            if (!stale.contains(key(label))) {
+                labels.putIfAbsent(key(label), label);
+            }
+        }
+        for (String label : content.labels()) {
+            labels.putIfAbsent(key(label), label);
+        }
+        return new ArrayList<>(labels.values());
+    }
+
+    private static Set<String> keys(List<String> labels) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String label : labels) {
+            keys.add(key(label));
+        }
+        return keys;
+    }
+
+    private static String key(String label) {
+        return label.toLowerCase(Locale.ROOT);
+    }
+}
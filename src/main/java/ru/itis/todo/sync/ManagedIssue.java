@@ -0,0 +1,12 @@
+package ru.itis.todo.sync;
+
+import java.util.List;
+
+// Issue с маркером отпечатка TODO, каким его вернул GitHub (или локальное хранилище)
+public record ManagedIssue(String fingerprint, int number, String nodeId, boolean open, String title, String body,
+                           List<String> labels) {
+
+    public SyncState syncState() {
+        return SyncState.parse(body);
+    }
+}
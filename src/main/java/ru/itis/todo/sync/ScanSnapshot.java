@@ -0,0 +1,19 @@
+package ru.itis.todo.sync;
+
+import ru.itis.todo.api.TodoItem;
+
+import java.util.List;
+
+// Результат сканирования для сверки. complete - просмотрены все файлы репозитория, и отсутствующий TODO
+// действительно удалён. Для --since, инкрементальной синхронизации --watch и неполного merge закрываются
+// только issues из removed
+public record ScanSnapshot(List<TodoItem> items, List<TodoItem> removed, boolean complete) {
+
+    public static ScanSnapshot full(List<TodoItem> items) {
+        return new ScanSnapshot(items, List.of(), true);
+    }
+
+    public static ScanSnapshot partial(List<TodoItem> items, List<TodoItem> removed) {
+        return new ScanSnapshot(items, removed, false);
+    }
+}
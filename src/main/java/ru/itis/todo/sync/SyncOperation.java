@@ -0,0 +1,50 @@
+package ru.itis.todo.sync;
+
+import ru.itis.todo.api.TodoItem;
+
+import java.util.List;
+
+// Одна операция плана сверки - ровно один запрос к API (или одна мутация в GraphQL-пачке).
+// title и labels равны null, если операция их не меняет
+public record SyncOperation(Type type, TodoItem item, ManagedIssue issue, String title, String body, List<String> labels) {
+
+    public enum Type {
+        CREATE("Создан", "создать"),
+        UPDATE("Обновлён", "обновить"),
+        CLOSE("Закрыт", "закрыть"),
+        REOPEN("Переоткрыт", "переоткрыть");
+
+        private final String done;
+        private final String verb;
+
+        Type(String done, String verb) {
+            this.done = done;
+            this.verb = verb;
+        }
+
+        public String done() {
+            return done;
+        }
+
+        public String verb() {
+            return verb;
+        }
+    }
+
+    // Новое состояние issue: открыт ли он после операции
+    public boolean open() {
+        return type != Type.CLOSE;
+    }
+
+    public String description() {
+        return item != null ? item.getDescription() : issue.title();
+    }
+
+    public ManagedIssue apply(int number, String nodeId) {
+        String fingerprint = item != null ? item.fingerprint() : issue.fingerprint();
+        return new ManagedIssue(fingerprint, number, nodeId, open(),
+                title != null ? title : issue.title(),
+                body,
+                labels != null ? labels : issue.labels());
+    }
+}
@@ -0,0 +1,58 @@
+package ru.itis.todo.sync;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Состояние issue на момент последней синхронизации, записанное скрытым комментарием в его тело:
+// хэш отправленного содержимого, отправленные метки и признак того, что issue закрыл сам инструмент.
+// Это база трёхстороннего сравнения: правки людей в issue не перезаписываются, пока не изменится сам TODO
+public record SyncState(String hash, List<String> labels, boolean closed) {
+    private static final Pattern MARKER = Pattern.compile("\\n?<!-- todo-sync: ([0-9a-f]*) labels=(\\S*)( closed)? -->");
+
+    public static SyncState parse(String body) {
+        if (body == null) {
+            return null;
+        }
+        Matcher matcher = MARKER.matcher(body);
+        if (!matcher.find()) {
+            return null;
+        }
+        List<String> labels = new ArrayList<>();
+        if (!matcher.group(2).isEmpty()) {
+            for (String label : matcher.group(2).split(",")) {
+                labels.add(URLDecoder.decode(label, StandardCharsets.UTF_8));
+            }
+        }
+        return new SyncState(matcher.group(1), labels, matcher.group(3) != null);
+    }
+
+    // Тело без маркера синхронизации - то, с чем сравнивается отрисованный TODO
+    public static String strip(String body) {
+        return body == null ? "" : MARKER.matcher(body).replaceAll("");
+    }
+
+    public String marker() {
+        StringBuilder marker = new StringBuilder("<!-- todo-sync: ").append(hash).append(" labels=");
+        for (int i = 0; i < labels.size(); i++) {
+            if (i > 0) {
+                marker.append(',');
+            }
+            // В закодированном имени нет пробелов, запятых и '>', поэтому оно не ломает комментарий
+            marker.append(URLEncoder.encode(labels.get(i), StandardCharsets.UTF_8));
+        }
+        return marker.append(closed ? " closed" : "").append(" -->").toString();
+    }
+
+    public SyncState withClosed(boolean closed) {
+        return new SyncState(hash, labels, closed);
+    }
+
+    public String applyTo(String body) {
+        return strip(body) + "\n" + marker();
+    }
+}
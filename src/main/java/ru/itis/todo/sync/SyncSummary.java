@@ -0,0 +1,50 @@
+package ru.itis.todo.sync;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Итог сверки по типам операций; счётчики обновляются из потоков отправки
+public class SyncSummary {
+    private final Map<SyncOperation.Type, AtomicInteger> completed = new EnumMap<>(SyncOperation.Type.class);
+    private final AtomicInteger failed = new AtomicInteger();
+
+    public SyncSummary() {
+        for (SyncOperation.Type type : SyncOperation.Type.values()) {
+            completed.put(type, new AtomicInteger());
+        }
+    }
+
+    public static SyncSummary created(int count) {
+        SyncSummary summary = new SyncSummary();
+        summary.completed.get(SyncOperation.Type.CREATE).set(count);
+        return summary;
+    }
+
+    public void completed(SyncOperation.Type type) {
+        completed.get(type).incrementAndGet();
+    }
+
+    public void failed() {
+        failed.incrementAndGet();
+    }
+
+    public int get(SyncOperation.Type type) {
+        return completed.get(type).get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int total() {
+        return completed.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("создано %d, обновлено %d, закрыто %d, переоткрыто %d",
+                get(SyncOperation.Type.CREATE), get(SyncOperation.Type.UPDATE),
+                get(SyncOperation.Type.CLOSE), get(SyncOperation.Type.REOPEN));
+    }
+}
@@ -0,0 +1,36 @@
+package ru.itis.todo;
+
+import org.eclipse.jgit.internal.JGitText;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import ru.itis.todo.api.TodoConfig;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Native image runtime hints")
+class TodoRuntimeHintsTests {
+
+	@Test
+	@DisplayName("Should register configuration, github-api models and JGit messages for reflection")
+	void shouldRegisterReflectiveTypes() {
+		RuntimeHints hints = new RuntimeHints();
+		new TodoRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+		assertTrue(RuntimeHintsPredicates.reflection().onType(TodoConfig.class)
+				.withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS).test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection().onType(TodoConfig.GitHubConfig.class)
+				.withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection().onType(TodoConfig.JavaParserMode.class).test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of("org.kohsuke.github.GHIssue")).test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection()
+				.onType(TypeReference.of("org.kohsuke.github.GHRateLimit$Record")).test(hints));
+		assertTrue(RuntimeHintsPredicates.reflection().onType(JGitText.class)
+				.withMemberCategory(MemberCategory.PUBLIC_FIELDS).test(hints));
+		assertTrue(RuntimeHintsPredicates.resource().forResource(".todo-to-issue.yaml").test(hints));
+	}
+}
@@ -0,0 +1,93 @@
+package ru.itis.todo.git;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.metrics.TodoMetrics;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GitService temporary clone cleanup")
+class GitServiceTests {
+	@TempDir
+	Path tempDir;
+
+	private String originalTempDir;
+
+	@BeforeEach
+	void useTempDir() {
+		originalTempDir = System.getProperty("java.io.tmpdir");
+		System.setProperty("java.io.tmpdir", tempDir.toString());
+	}
+
+	@AfterEach
+	void restoreTempDir() {
+		System.setProperty("java.io.tmpdir", originalTempDir);
+	}
+
+	@Test
+	@DisplayName("Should delete nested directories and read-only files")
+	void shouldDeleteTree() throws IOException {
+		Path root = clone("todo-scanner-1", Duration.ZERO);
+		Path pack = Files.createDirectories(root.resolve("repo/.git/objects/pack")).resolve("pack-1.pack");
+		Files.writeString(pack, "pack");
+		assertTrue(pack.toFile().setReadOnly());
+		Files.writeString(Files.createDirectories(root.resolve("repo/src")).resolve("Main.java"), "class Main {}");
+
+		GitService.DeleteResult result = GitService.deleteTree(root);
+
+		assertFalse(result.hasFailures(), () -> String.join("\n", result.errors()));
+		assertFalse(Files.exists(root));
+	}
+
+	@Test
+	@DisplayName("Should sweep only clones whose owner no longer holds the lock")
+	void shouldSweepAbandonedClones() throws IOException {
+		Path abandoned = clone("todo-scanner-abandoned", Duration.ofMinutes(10));
+		Path withoutLockOld = clone("todo-scanner-old", Duration.ofHours(2), false);
+		Path withoutLockRecent = clone("todo-scanner-recent", Duration.ofMinutes(10), false);
+		Path justCreated = clone("todo-scanner-new", Duration.ZERO);
+		Path live = clone("todo-scanner-live", Duration.ofMinutes(10));
+		Path unrelated = Files.createDirectory(tempDir.resolve("other-tool-1"));
+
+		try (FileChannel channel = FileChannel.open(live.resolve(GitService.LOCK_FILE), StandardOpenOption.WRITE);
+			 FileLock ignored = channel.lock()) {
+			new GitService(new TodoConfig(), new TodoMetrics(new SimpleMeterRegistry())).sweepStaleClones();
+		}
+
+		assertFalse(Files.exists(abandoned));
+		assertFalse(Files.exists(withoutLockOld));
+		assertTrue(Files.exists(withoutLockRecent));
+		assertTrue(Files.exists(justCreated));
+		assertTrue(Files.exists(live));
+		assertTrue(Files.exists(unrelated));
+	}
+
+	private Path clone(String name, Duration age) throws IOException {
+		return clone(name, age, true);
+	}
+
+	private Path clone(String name, Duration age, boolean withLock) throws IOException {
+		Path root = Files.createDirectory(tempDir.resolve(name));
+		if (withLock) {
+			Files.writeString(root.resolve(GitService.LOCK_FILE), "");
+		}
+		Files.writeString(Files.createDirectories(root.resolve("repo")).resolve("README.md"), "readme");
+		Files.setLastModifiedTime(root, FileTime.from(Instant.now().minus(age)));
+		return root;
+	}
+}
@@ -0,0 +1,310 @@
+package ru.itis.todo.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncOperation;
+import ru.itis.todo.sync.SyncState;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GitHubIssueCreator against a stub GitHub API")
+class GitHubIssueCreatorTests {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private HttpServer server;
+	private String baseUrl;
+	private final AtomicInteger createRequests = new AtomicInteger();
+	private final List<String> createdTitles = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> existingBodies = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> existingLabels = Collections.synchronizedList(
+			new ArrayList<>(List.of("todo", "good first issue", "feature", "medium")));
+	private final List<String> createdLabels = Collections.synchronizedList(new ArrayList<>());
+	private final List<JsonNode> createdIssues = Collections.synchronizedList(new ArrayList<>());
+	private final Map<Integer, JsonNode> patchedIssues = new ConcurrentHashMap<>();
+	private final Set<String> lostResponses = ConcurrentHashMap.newKeySet();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+		server.createContext("/", this::handle);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	@DisplayName("Should retry transient and rate-limited failures and create every issue once")
+	void shouldRetryTransientFailures() {
+		List<TodoItem> items = items(5);
+
+		int created = new GitHubIssueCreator(config(), new TodoMetrics(registry)).createIssues(items, false);
+
+		assertEquals(5, created);
+		assertEquals(5, createdTitles.size());
+		assertEquals(5, createdTitles.stream().distinct().count());
+		assertTrue(createRequests.get() >= 7, "502 and secondary rate limit responses should be retried");
+		assertEquals(5, registry.timer(TodoMetrics.GITHUB_REQUESTS, "outcome", "success").count());
+		assertEquals(createRequests.get() - 5, (long) registry.counter(TodoMetrics.GITHUB_RETRIES).count());
+		assertTrue(registry.counter(TodoMetrics.GITHUB_RATE_LIMITED).count() >= 1);
+	}
+
+	@Test
+	@DisplayName("Should not count rate-limited responses as attempts")
+	void shouldNotSpendAttemptsOnRateLimits() {
+		TodoConfig config = config();
+		config.getGithub().setMaxAttempts(2);
+
+		int created = new GitHubIssueCreator(config, new TodoMetrics(registry)).createIssues(items(1), false);
+
+		assertEquals(1, created);
+		assertEquals(3, createRequests.get());
+	}
+
+	@Test
+	@DisplayName("Should find an issue created by a request that failed with 5xx instead of creating it again")
+	void shouldNotDuplicateIssueAfterLostResponse() {
+		TodoItem item = item("Lost task", 1);
+		lostResponses.add("Lost task");
+
+		int created = new GitHubIssueCreator(config(), new TodoMetrics(registry)).createIssues(List.of(item), false);
+
+		assertEquals(1, created);
+		assertEquals(1, createRequests.get());
+		assertEquals(1, existingBodies.size());
+		assertEquals(item.fingerprint(), IssueIndex.extractFingerprint(existingBodies.get(0)));
+	}
+
+	@Test
+	@DisplayName("Should skip TODOs whose fingerprint is already present in an existing issue")
+	void shouldSkipExistingIssues() {
+		List<TodoItem> items = items(3);
+		existingBodies.add("Old issue\n" + IssueIndex.marker(items.get(1).fingerprint()));
+
+		GitHubIssueCreator creator = new GitHubIssueCreator(config(), new TodoMetrics(registry));
+
+		assertTrue(creator.issueExists(items.get(1)));
+		assertFalse(creator.issueExists(items.get(0)));
+		assertEquals(2, creator.createIssues(items, false));
+		assertFalse(createdTitles.contains("Task 1"));
+	}
+
+	@Test
+	@DisplayName("Should report failures without aborting the remaining items")
+	void shouldContinueAfterPermanentFailure() {
+		List<TodoItem> items = new ArrayList<>(items(3));
+		items.add(item("Rejected task", 99));
+
+		int created = new GitHubIssueCreator(config(), new TodoMetrics(registry)).createIssues(items, false);
+
+		assertEquals(3, created);
+		assertFalse(createdTitles.contains("Rejected task"));
+	}
+
+	@Test
+	@DisplayName("Should create missing labels once and redirect unassignable users before submitting issues")
+	void shouldProvisionLabelsAndAssignees() {
+		existingLabels.retainAll(List.of("todo", "medium"));
+		List<TodoItem> items = new ArrayList<>(items(2));
+		items.add(item("Owned task", 10, "@Alice", "perf"));
+		items.add(item("Stranger task", 11, "@stranger", "perf"));
+		TodoConfig config = config();
+		config.getGithub().setDefaultAssignee("@maintainer");
+
+		int created = new GitHubIssueCreator(config, new TodoMetrics(registry)).createIssues(items, false);
+
+		assertEquals(4, created);
+		assertEquals(3, createdLabels.size());
+		assertEquals(Set.of("good first issue", "feature", "perf"), Set.copyOf(createdLabels));
+		JsonNode owned = issue("Owned task");
+		assertEquals("[\"Alice\"]", owned.get("assignees").toString());
+		assertEquals("[\"todo\",\"good first issue\",\"feature\",\"medium\",\"perf\"]", owned.get("labels").toString());
+		assertEquals("[\"maintainer\"]", issue("Stranger task").get("assignees").toString());
+		assertEquals(0, issue("Task 0").path("assignees").size());
+	}
+
+	@Test
+	@DisplayName("Should update moved TODOs, close removed ones and leave unchanged issues alone")
+	void shouldSyncIssueLifecycle() {
+		TodoConfig config = config();
+		IssueFormatter formatter = new IssueFormatter(config);
+		List<TodoItem> synced = items(3);
+		for (TodoItem item : synced) {
+			existingBodies.add(formatter.content(item).markedBody());
+		}
+		TodoItem moved = item("Task 1", 40);
+		List<TodoItem> scanned = List.of(synced.get(0), moved, item("Task 3", 4));
+
+		SyncSummary summary = new GitHubIssueCreator(config, new TodoMetrics(registry))
+				.sync(ScanSnapshot.full(scanned), false);
+
+		assertEquals(1, summary.get(SyncOperation.Type.CREATE));
+		assertEquals(1, summary.get(SyncOperation.Type.UPDATE));
+		assertEquals(1, summary.get(SyncOperation.Type.CLOSE));
+		assertEquals(List.of("Task 3"), createdTitles);
+		assertEquals(Set.of(1001, 1002), patchedIssues.keySet());
+		assertTrue(patchedIssues.get(1001).get("body").asText().contains("**Строка**: 40"));
+		assertFalse(patchedIssues.get(1001).has("state"));
+		assertEquals("closed", patchedIssues.get(1002).get("state").asText());
+		assertTrue(SyncState.parse(patchedIssues.get(1002).get("body").asText()).closed());
+		assertEquals(1, registry.counter(TodoMetrics.GITHUB_SYNC, "operation", "close").count());
+	}
+
+	private JsonNode issue(String title) {
+		return createdIssues.stream()
+				.filter(issue -> issue.get("title").asText().equals(title))
+				.findFirst()
+				.orElseThrow();
+	}
+
+	private TodoConfig config() {
+		TodoConfig.GitHubConfig github = new TodoConfig.GitHubConfig();
+		github.setRepo("owner/repo");
+		github.setToken("test-token");
+		github.setApiUrl(baseUrl);
+		github.setConcurrency(2);
+		github.setRequestsPerMinute(6000);
+		github.setRetryBackoffMillis(10);
+
+		TodoConfig config = new TodoConfig();
+		config.setGithub(github);
+		config.setIssueTemplate(new TodoConfig.IssueTemplateConfig());
+		return config;
+	}
+
+	private static List<TodoItem> items(int count) {
+		List<TodoItem> items = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			items.add(item("Task " + i, i + 1));
+		}
+		return items;
+	}
+
+	private static TodoItem item(String description, int line) {
+		return item(description, line, null);
+	}
+
+	private static TodoItem item(String description, int line, String assignee, String... tags) {
+		return TodoItem.builder()
+				.description(description)
+				.filePath(Path.of("src/Main.java"))
+				.lineNumber(line)
+				.priority("medium")
+				.category("feature")
+				.assignee(assignee)
+				.tags(tags)
+				.build();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		String method = exchange.getRequestMethod();
+
+		if ("GET".equals(method) && path.equals("/repos/owner/repo")) {
+			respond(exchange, 200, """
+					{"id": 1, "name": "repo", "full_name": "owner/repo", "owner": {"login": "owner", "id": 1},
+					 "url": "%s/repos/owner/repo", "html_url": "https://github.com/owner/repo", "has_issues": true}
+					""".formatted(baseUrl));
+		} else if ("GET".equals(method) && path.equals("/repos/owner/repo/issues")) {
+			List<String> issues = new ArrayList<>();
+			for (int i = 0; i < existingBodies.size(); i++) {
+				issues.add(MAPPER.writeValueAsString(MAPPER.createObjectNode()
+						.put("number", 1000 + i)
+						.put("title", "Existing")
+						.put("state", "open")
+						.put("body", existingBodies.get(i))));
+			}
+			respond(exchange, 200, "[" + String.join(",", issues) + "]");
+		} else if ("PATCH".equals(method) && path.startsWith("/repos/owner/repo/issues/")) {
+			int number = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+			patchedIssues.put(number, MAPPER.readTree(exchange.getRequestBody()));
+			respond(exchange, 200, MAPPER.writeValueAsString(MAPPER.createObjectNode()
+					.put("number", number)
+					.put("node_id", "I_" + number)));
+		} else if ("GET".equals(method) && path.equals("/repos/owner/repo/labels")) {
+			List<String> labels = new ArrayList<>();
+			for (String name : existingLabels) {
+				labels.add(label(name));
+			}
+			respond(exchange, 200, "[" + String.join(",", labels) + "]");
+		} else if ("POST".equals(method) && path.equals("/repos/owner/repo/labels")) {
+			String name = MAPPER.readTree(exchange.getRequestBody()).get("name").asText();
+			createdLabels.add(name);
+			existingLabels.add(name);
+			respond(exchange, 201, label(name));
+		} else if ("GET".equals(method) && path.equals("/repos/owner/repo/assignees")) {
+			respond(exchange, 200, """
+					[{"login": "Alice", "id": 2, "type": "User"}, {"login": "maintainer", "id": 3, "type": "User"}]
+					""");
+		} else if ("POST".equals(method) && path.equals("/repos/owner/repo/issues")) {
+			JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+			String title = request.get("title").asText();
+			int attempt = createRequests.incrementAndGet();
+			if (title.equals("Rejected task")) {
+				respond(exchange, 422, "{\"message\": \"Validation Failed\"}");
+			} else if (lostResponses.remove(title)) {
+				// Issue создан, но ответ до клиента не дошёл
+				existingBodies.add(request.get("body").asText());
+				respond(exchange, 502, "{\"message\": \"Bad Gateway\"}");
+			} else if (attempt == 1) {
+				respond(exchange, 502, "{\"message\": \"Bad Gateway\"}");
+			} else if (attempt == 2) {
+				exchange.getResponseHeaders().add("Retry-After", "1");
+				respond(exchange, 403, "{\"message\": \"You have exceeded a secondary rate limit\"}");
+			} else {
+				createdTitles.add(title);
+				createdIssues.add(request);
+				respond(exchange, 201, MAPPER.writeValueAsString(MAPPER.createObjectNode()
+						.put("number", attempt)
+						.put("title", title)
+						.put("state", "open")
+						.put("body", request.get("body").asText())));
+			}
+		} else {
+			respond(exchange, 404, "{\"message\": \"Not Found\"}");
+		}
+	}
+
+	private static String label(String name) throws IOException {
+		return MAPPER.writeValueAsString(MAPPER.createObjectNode()
+				.put("id", name.hashCode())
+				.put("name", name)
+				.put("color", "ededed"));
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}
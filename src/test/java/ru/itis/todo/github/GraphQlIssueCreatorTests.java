@@ -0,0 +1,265 @@
+package ru.itis.todo.github;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncOperation;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GraphQlIssueCreator against a stub GraphQL endpoint")
+class GraphQlIssueCreatorTests {
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private HttpServer server;
+	private String baseUrl;
+	private final AtomicInteger batchRequests = new AtomicInteger();
+	private final AtomicInteger labelRequests = new AtomicInteger();
+	private final AtomicInteger issueNumbers = new AtomicInteger(100);
+	private final List<String> createdLabels = Collections.synchronizedList(new ArrayList<>());
+	private final List<String> existingBodies = Collections.synchronizedList(new ArrayList<>());
+	private final Map<String, JsonNode> createdIssues = new ConcurrentHashMap<>();
+	private final Map<String, JsonNode> updatedIssues = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> createAttempts = new ConcurrentHashMap<>();
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+		server.createContext("/graphql", this::handle);
+		server.start();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop(0);
+	}
+
+	@Test
+	@DisplayName("Should create issues in aliased batches with label ids resolved once")
+	void shouldBatchIssues() {
+		int created = new GraphQlIssueCreator(config(2), new TodoMetrics(registry)).createIssues(items(5), false);
+
+		assertEquals(5, created);
+		assertEquals(5, createdIssues.size());
+		// Три пачки по 2, 2 и 1 плюс повтор пачки после 502
+		assertEquals(4, batchRequests.get());
+		assertEquals(1, labelRequests.get());
+		assertEquals(List.of("good first issue", "feature", "medium"), createdLabels);
+		assertEquals("[\"LA_todo\",\"LA_good first issue\",\"LA_feature\",\"LA_medium\"]",
+				createdIssues.get("Task 0").get("labelIds").toString());
+	}
+
+	@Test
+	@DisplayName("Should resubmit only the aliases that failed with a retryable error")
+	void shouldRetryFailedAliases() {
+		List<TodoItem> items = new ArrayList<>(items(3));
+		items.add(item("Rejected task", 98, null));
+		items.add(item("Flaky task", 99, null));
+
+		int created = new GraphQlIssueCreator(config(10), new TodoMetrics(registry)).createIssues(items, false);
+
+		assertEquals(4, created);
+		assertFalse(createdIssues.containsKey("Rejected task"));
+		assertEquals(2, createAttempts.get("Flaky task").get());
+		assertEquals(1, createAttempts.get("Task 0").get());
+		assertEquals(1, registry.counter(TodoMetrics.GITHUB_GRAPHQL_ISSUES, "outcome", "failed").count());
+		assertEquals(1, registry.counter(TodoMetrics.GITHUB_GRAPHQL_ISSUES, "outcome", "retried").count());
+	}
+
+	@Test
+	@DisplayName("Should skip existing issues and drop assignees that cannot be assigned")
+	void shouldSkipExistingIssuesAndUnknownUsers() {
+		List<TodoItem> items = List.of(item("Known", 1, "@alice"), item("Ghost", 2, "@ghost"), item("Old", 3, null));
+		existingBodies.add("Old issue\n" + IssueIndex.marker(items.get(2).fingerprint()));
+
+		GraphQlIssueCreator creator = new GraphQlIssueCreator(config(10), new TodoMetrics(registry));
+
+		assertTrue(creator.issueExists(items.get(2)));
+		assertEquals(2, creator.createIssues(items, false));
+		assertFalse(createdIssues.containsKey("Old"));
+		assertEquals("[\"U_alice\"]", createdIssues.get("Known").get("assigneeIds").toString());
+		assertFalse(createdIssues.get("Ghost").has("assigneeIds"));
+	}
+
+	@Test
+	@DisplayName("Should mix issue creation, update and closing in one aliased batch")
+	void shouldSyncInMixedBatch() {
+		TodoConfig config = config(10);
+		IssueFormatter formatter = new IssueFormatter(config);
+		List<TodoItem> synced = items(2);
+		for (TodoItem item : synced) {
+			existingBodies.add(formatter.content(item).markedBody());
+		}
+
+		SyncSummary summary = new GraphQlIssueCreator(config, new TodoMetrics(registry))
+				.sync(ScanSnapshot.full(List.of(item("Task 0", 30, null), item("Task 5", 6, null))), false);
+
+		assertEquals(1, summary.get(SyncOperation.Type.CREATE));
+		assertEquals(1, summary.get(SyncOperation.Type.UPDATE));
+		assertEquals(1, summary.get(SyncOperation.Type.CLOSE));
+		// Первая пачка получает 502, вторая проходит целиком
+		assertEquals(2, batchRequests.get());
+		assertTrue(createdIssues.containsKey("Task 5"));
+		assertTrue(updatedIssues.get("I_1000").get("body").asText().contains("**Строка**: 30"));
+		assertFalse(updatedIssues.get("I_1000").has("state"));
+		assertEquals("CLOSED", updatedIssues.get("I_1001").get("state").asText());
+		assertEquals(3, registry.counter(TodoMetrics.GITHUB_GRAPHQL_ISSUES, "outcome", "succeeded").count());
+	}
+
+	@Test
+	@DisplayName("Should derive the GraphQL endpoint from the REST API url")
+	void shouldDeriveEndpoint() {
+		assertEquals(URI.create("https://api.github.com/graphql"), GraphQlIssueCreator.endpoint("https://api.github.com"));
+		assertEquals(URI.create("https://ghe.example.com/api/graphql"),
+				GraphQlIssueCreator.endpoint("https://ghe.example.com/api/v3/"));
+	}
+
+	private TodoConfig config(int batchSize) {
+		TodoConfig.GitHubConfig github = new TodoConfig.GitHubConfig();
+		github.setRepo("owner/repo");
+		github.setToken("test-token");
+		github.setApiUrl(baseUrl);
+		github.setApi(TodoConfig.GitHubApi.GRAPHQL);
+		github.setBatchSize(batchSize);
+		github.setConcurrency(2);
+		github.setRequestsPerMinute(6000);
+		github.setRetryBackoffMillis(10);
+
+		TodoConfig config = new TodoConfig();
+		config.setGithub(github);
+		return config;
+	}
+
+	private static List<TodoItem> items(int count) {
+		List<TodoItem> items = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			items.add(item("Task " + i, i + 1, null));
+		}
+		return items;
+	}
+
+	private static TodoItem item(String description, int line, String assignee) {
+		return TodoItem.builder()
+				.description(description)
+				.filePath(Path.of("src/Main.java"))
+				.lineNumber(line)
+				.priority("medium")
+				.category("feature")
+				.assignee(assignee)
+				.tags(new String[0])
+				.build();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+		String query = request.get("query").asText();
+		JsonNode variables = request.get("variables");
+		ObjectNode response = MAPPER.createObjectNode();
+		ObjectNode data = response.putObject("data");
+		ArrayNode errors = MAPPER.createArrayNode();
+
+		if (query.contains("labels(first") && !query.contains("issues(first")) {
+			ObjectNode labels = data.putObject("repository").put("id", "R_1").putObject("labels");
+			labels.putArray("nodes").addObject().put("id", "LA_todo").put("name", "todo");
+			labels.putObject("pageInfo").put("hasNextPage", false);
+		} else if (query.contains("issues(first")) {
+			ObjectNode issues = data.putObject("repository").putObject("issues");
+			ArrayNode nodes = issues.putArray("nodes");
+			for (int i = 0; i < existingBodies.size(); i++) {
+				nodes.addObject()
+						.put("id", "I_" + (1000 + i))
+						.put("number", 1000 + i)
+						.put("state", "OPEN")
+						.put("title", "Existing")
+						.put("body", existingBodies.get(i));
+			}
+			issues.putObject("pageInfo").put("hasNextPage", false);
+		} else if (query.contains("createLabel")) {
+			labelRequests.incrementAndGet();
+			for (Iterator<Map.Entry<String, JsonNode>> it = variables.fields(); it.hasNext(); ) {
+				Map.Entry<String, JsonNode> entry = it.next();
+				String name = entry.getValue().get("name").asText();
+				createdLabels.add(name);
+				data.putObject(entry.getKey()).putObject("label").put("id", "LA_" + name).put("name", name);
+			}
+		} else if (query.contains("assignableUsers")) {
+			ObjectNode users = data.putObject("repository").putObject("assignableUsers");
+			users.putArray("nodes").addObject().put("id", "U_alice").put("login", "Alice");
+			users.putObject("pageInfo").put("hasNextPage", false);
+		} else if (query.contains("createIssue") || query.contains("updateIssue")) {
+			if (batchRequests.incrementAndGet() == 1) {
+				respond(exchange, 502, "{\"message\": \"Bad Gateway\"}");
+				return;
+			}
+			for (Iterator<Map.Entry<String, JsonNode>> it = variables.fields(); it.hasNext(); ) {
+				Map.Entry<String, JsonNode> entry = it.next();
+				JsonNode input = entry.getValue();
+				if (input.has("id")) {
+					updatedIssues.put(input.get("id").asText(), input);
+					int number = Integer.parseInt(input.get("id").asText().substring(2));
+					data.putObject(entry.getKey()).putObject("issue").put("id", input.get("id").asText()).put("number", number);
+					continue;
+				}
+				String title = input.get("title").asText();
+				int attempt = createAttempts.computeIfAbsent(title, key -> new AtomicInteger()).incrementAndGet();
+				if (title.equals("Rejected task")) {
+					data.putNull(entry.getKey());
+					errors.add(error(entry.getKey(), "UNPROCESSABLE", "Title is invalid"));
+				} else if (title.equals("Flaky task") && attempt == 1) {
+					data.putNull(entry.getKey());
+					errors.add(error(entry.getKey(), "RATE_LIMITED", "Too many issues created"));
+				} else {
+					createdIssues.put(title, input);
+					data.putObject(entry.getKey()).putObject("issue").put("number", issueNumbers.incrementAndGet());
+				}
+			}
+		}
+
+		if (!errors.isEmpty()) {
+			response.set("errors", errors);
+		}
+		respond(exchange, 200, MAPPER.writeValueAsString(response));
+	}
+
+	private static ObjectNode error(String alias, String type, String message) {
+		ObjectNode error = MAPPER.createObjectNode().put("type", type).put("message", message);
+		error.putArray("path").add(alias);
+		return error;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		exchange.getResponseBody().write(bytes);
+		exchange.close();
+	}
+}
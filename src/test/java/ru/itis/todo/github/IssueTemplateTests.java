@@ -0,0 +1,87 @@
+package ru.itis.todo.github;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.metrics.TodoMetrics;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Compiled issue templates")
+class IssueTemplateTests {
+
+	@Test
+	@DisplayName("Should substitute every placeholder and keep escaped braces")
+	void shouldRenderPlaceholders() {
+		IssueTemplate template = IssueTemplate.compile(
+				"[{priority}/{category}] {description} at {file}:{line} {assignee} ({tags}) {{raw}}");
+
+		String rendered = template.render(item("@alice", "cache", "io"));
+
+		assertEquals("[high/perf] Add cache at src/Main.java:42 @alice (cache, io) {raw}", rendered);
+	}
+
+	@Test
+	@DisplayName("Should render missing optional values as empty strings")
+	void shouldRenderMissingValues() {
+		TodoItem item = TodoItem.builder().description("Bare").lineNumber(1).build();
+
+		assertEquals("Bare||", IssueTemplate.compile("{description}|{assignee}|{tags}").render(item));
+	}
+
+	@Test
+	@DisplayName("Should reject unknown and unclosed placeholders")
+	void shouldRejectInvalidTemplates() {
+		IllegalArgumentException unknown = assertThrows(IllegalArgumentException.class,
+				() -> IssueTemplate.compile("{description} in {module}"));
+		assertTrue(unknown.getMessage().contains("{module}"));
+		assertThrows(IllegalArgumentException.class, () -> IssueTemplate.compile("{description"));
+	}
+
+	@Test
+	@DisplayName("Should validate configured templates when the creator is constructed")
+	void shouldValidateConfigurationAtStartup() {
+		TodoConfig.IssueTemplateConfig templates = new TodoConfig.IssueTemplateConfig();
+		templates.setLabels(List.of("todo", "{prio}"));
+		TodoConfig config = new TodoConfig();
+		config.setIssueTemplate(templates);
+
+		assertThrows(IllegalArgumentException.class,
+				() -> new GitHubIssueCreator(config, new TodoMetrics(new SimpleMeterRegistry())));
+	}
+
+	@Test
+	@DisplayName("Should expand a bare {tags} label into one label per tag")
+	void shouldDetectTagList() {
+		assertTrue(IssueTemplate.compile("{tags}").isTagList());
+		assertFalse(IssueTemplate.compile("tags: {tags}").isTagList());
+		assertFalse(IssueTemplate.compile("{category}").isTagList());
+	}
+
+	@Test
+	@DisplayName("Should label issues with TODO tags under the shipped configuration")
+	void shouldLabelTagsWithDefaultConfig() throws Exception {
+		TodoConfig config = TodoConfig.fromYaml(Path.of(ClassLoader.getSystemResource(".todo-to-issue.yaml").toURI()));
+
+		List<String> labels = new IssueFormatter(config).labels(item(null, "cache", "io"));
+
+		assertEquals(List.of("todo", "good first issue", "perf", "high", "cache", "io"), labels);
+	}
+
+	private static TodoItem item(String assignee, String... tags) {
+		return TodoItem.builder()
+				.description("Add cache")
+				.filePath(Path.of("src/Main.java"))
+				.lineNumber(42)
+				.priority("high")
+				.category("perf")
+				.assignee(assignee)
+				.tags(tags)
+				.build();
+	}
+}
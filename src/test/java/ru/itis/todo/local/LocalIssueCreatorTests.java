@@ -0,0 +1,137 @@
+package ru.itis.todo.local;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.sync.ManagedIssue;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncOperation;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LocalIssueCreator and its on-disk store")
+class LocalIssueCreatorTests {
+	@TempDir
+	Path dir;
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+	@Test
+	@DisplayName("Should keep issues across runs and skip the ones already stored")
+	void shouldDeduplicateAcrossRuns() throws IOException {
+		List<TodoItem> items = items(3000);
+
+		try (LocalIssueCreator creator = new LocalIssueCreator(config(0), new TodoMetrics(registry))) {
+			assertEquals(2000, creator.createIssues(items.subList(0, 2000), false));
+		}
+		try (LocalIssueCreator creator = new LocalIssueCreator(config(0), new TodoMetrics(registry))) {
+			assertTrue(creator.issueExists(items.get(1999)));
+			assertFalse(creator.issueExists(items.get(2000)));
+			assertEquals(1000, creator.createIssues(items, false));
+		}
+
+		try (LocalIssueStore store = LocalIssueStore.open(dir)) {
+			assertEquals(3000, store.size());
+			// Номера выдаются в порядке записи параллельных операций, но не повторяются между запусками
+			assertTrue(store.get(items.get(2999).fingerprint()).number() > 2000);
+			assertEquals(3000, store.issues().stream().mapToInt(ManagedIssue::number).distinct().count());
+			assertEquals(3000, Files.readAllLines(dir.resolve(LocalIssueStore.LOG_FILE)).size());
+		}
+	}
+
+	@Test
+	@DisplayName("Should retry injected failures through the scheduler")
+	void shouldRetryInjectedFailures() throws IOException {
+		try (LocalIssueCreator creator = new LocalIssueCreator(config(0.3), new TodoMetrics(registry))) {
+			assertEquals(200, creator.createIssues(items(200), false));
+		}
+		assertTrue(registry.counter(TodoMetrics.GITHUB_RETRIES).count() > 0);
+		assertEquals(200, registry.counter(TodoMetrics.GITHUB_SYNC, "operation", "create").count());
+	}
+
+	@Test
+	@DisplayName("Should update, close and reopen issues by appending their new state")
+	void shouldSyncLifecycle() throws IOException {
+		List<TodoItem> items = items(3);
+		try (LocalIssueCreator creator = new LocalIssueCreator(config(0), new TodoMetrics(registry))) {
+			creator.sync(ScanSnapshot.full(items), false);
+
+			SyncSummary closed = creator.sync(ScanSnapshot.full(List.of(items.get(0), item("Task 1", 50))), false);
+			assertEquals(1, closed.get(SyncOperation.Type.UPDATE));
+			assertEquals(1, closed.get(SyncOperation.Type.CLOSE));
+
+			SyncSummary reopened = creator.sync(ScanSnapshot.full(items), false);
+			assertEquals(1, reopened.get(SyncOperation.Type.REOPEN));
+			assertEquals(1, reopened.get(SyncOperation.Type.UPDATE));
+			assertEquals(0, creator.sync(ScanSnapshot.full(items), false).total());
+		}
+
+		try (LocalIssueStore store = LocalIssueStore.open(dir)) {
+			ManagedIssue reopened = store.get(items.get(2).fingerprint());
+			assertTrue(reopened.open());
+			assertEquals(List.of(1, 2, 3), store.issues().stream().map(ManagedIssue::number).sorted().toList());
+			assertEquals(7, Files.readAllLines(dir.resolve(LocalIssueStore.LOG_FILE)).size());
+		}
+	}
+
+	@Test
+	@DisplayName("Should recover the index from the log after a crash")
+	void shouldRecoverIndex() throws IOException {
+		List<TodoItem> items = items(5);
+		try (LocalIssueCreator creator = new LocalIssueCreator(config(0), new TodoMetrics(registry))) {
+			creator.createIssues(items, false);
+		}
+		// Оборванная запись журнала и испорченный индекс
+		Files.writeString(dir.resolve(LocalIssueStore.LOG_FILE), "{\"number\": 6, \"finger", StandardOpenOption.APPEND);
+		Files.write(dir.resolve(LocalIssueStore.INDEX_FILE), new byte[]{1, 2, 3});
+
+		try (LocalIssueStore store = LocalIssueStore.open(dir)) {
+			assertEquals(5, store.size());
+			assertTrue(store.contains(items.get(4).fingerprint()));
+			assertEquals(5, Files.readAllLines(dir.resolve(LocalIssueStore.LOG_FILE)).size());
+			assertEquals(6, store.save(new ManagedIssue("00000000000000ff", 0, null, true, "New", "", List.of())).number());
+		}
+	}
+
+	private TodoConfig config(double failureRate) {
+		TodoConfig config = new TodoConfig();
+		config.getGithub().setApi(TodoConfig.GitHubApi.LOCAL);
+		config.getGithub().setConcurrency(4);
+		config.getGithub().setRetryBackoffMillis(1);
+		config.getGithub().setMaxAttempts(20);
+		config.getLocal().setPath(dir.toString());
+		config.getLocal().setFailureRate(failureRate);
+		return config;
+	}
+
+	private static List<TodoItem> items(int count) {
+		List<TodoItem> items = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			items.add(item("Task " + i, i + 1));
+		}
+		return items;
+	}
+
+	private static TodoItem item(String description, int line) {
+		return TodoItem.builder()
+				.description(description)
+				.filePath(Path.of("src/Main.java"))
+				.lineNumber(line)
+				.priority("medium")
+				.category("feature")
+				.tags(new String[0])
+				.build();
+	}
+}
@@ -0,0 +1,44 @@
+package ru.itis.todo.parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CSharpTodoParser comment detection")
+class CSharpTodoParserTests {
+	private final CSharpTodoParser parser = new CSharpTodoParser(new TodoConfig());
+
+	@Test
+	@DisplayName("Should skip comment openers inside string, verbatim string and char literals")
+	void shouldSkipLiterals(@TempDir Path tempDir) throws IOException {
+		Path file = Files.writeString(tempDir.resolve("Demo.cs"), """
+				class Demo {
+				    void Run() {
+				        Log("// TODO: not a comment");
+				        var url = "http://x"; // TODO: after a url
+				        var path = @"C:\\dir\\"; // TODO: after a verbatim string
+				        var quoted = @"say ""/* TODO: no"" "; var c = '/';
+				        var text = $@"{x} // TODO: interpolated";
+				        Log("\\"/*"); // TODO: after an escaped quote
+				        /* TODO: block
+				           TODO: continuation */
+				    }
+				}
+				""");
+
+		List<TodoItem> items = parser.parseFile(file);
+
+		assertEquals(List.of("after a url", "after a verbatim string", "after an escaped quote", "block", "continuation"),
+				items.stream().map(TodoItem::getDescription).toList());
+		assertEquals(List.of(4, 5, 8, 9, 10), items.stream().map(TodoItem::getLineNumber).toList());
+	}
+}
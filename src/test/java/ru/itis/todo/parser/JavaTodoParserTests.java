@@ -0,0 +1,140 @@
+package ru.itis.todo.parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoConfig.JavaParserMode;
+import ru.itis.todo.api.TodoItem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JavaTodoParser lexer mode parity with the JavaParser AST")
+class JavaTodoParserTests {
+	private static final String TRICKY_SOURCE = """
+			package demo;
+
+			/**
+			 * TODO: document the class | priority: high
+			 */
+			public class Demo {
+			    private static final String S = "// TODO: not a comment";
+			    private static final String T = \"""
+			            /* TODO: inside a text block */
+			            \\\""" still inside // TODO: not a comment either
+			            \""";
+			    private static final char C = '"';
+			    private static final char Q = '\\'';
+			    // TODO: line comment | category: bug | assignee: @dev | tags: a,b
+			    /* todo multi
+			       line block */
+			    int x = 4 / 2; /* TODO: after division */
+			    /**/
+			    String e = ""; // TODO: after an empty string
+			    String u = "\\\\"; // TODO: after an escaped backslash
+			    /* Комментарий на русском.
+			       TODO: проверить кодировку */
+			}
+			""";
+
+	private final JavaTodoParser astParser = new JavaTodoParser(config(JavaParserMode.AST, List.of("TODO")));
+	private final JavaTodoParser lexerParser = new JavaTodoParser(config(JavaParserMode.LEXER, List.of("TODO")));
+
+	@Test
+	@DisplayName("Should find the same TODOs as the AST parser in the project sources")
+	void shouldMatchAstOnProjectSources() throws IOException {
+		List<Path> corpus;
+		try (Stream<Path> paths = Stream.concat(Files.walk(Path.of("src/main/java")), Files.walk(Path.of("src/test/java")))) {
+			corpus = paths.filter(lexerParser::supportsFile).toList();
+		}
+		assertFalse(corpus.isEmpty(), "Corpus should not be empty");
+
+		for (Path file : corpus) {
+			assertEquals(parse(astParser, file), parse(lexerParser, file), "Mismatch in " + file);
+		}
+	}
+
+	@Test
+	@DisplayName("Should skip strings, text blocks and char literals like the AST parser")
+	void shouldMatchAstOnLiterals(@TempDir Path tempDir) throws IOException {
+		Path file = Files.writeString(tempDir.resolve("Demo.java"), TRICKY_SOURCE);
+
+		List<TodoItem> expected = parse(astParser, file);
+
+		assertEquals(7, expected.size());
+		assertEquals(expected, parse(lexerParser, file));
+	}
+
+	@Test
+	@DisplayName("Should count CRLF line endings like the AST parser")
+	void shouldMatchAstWithCrlf(@TempDir Path tempDir) throws IOException {
+		Path file = Files.writeString(tempDir.resolve("Demo.java"), TRICKY_SOURCE.replace("\n", "\r\n"));
+
+		assertEquals(parse(astParser, file), parse(lexerParser, file));
+	}
+
+	@Test
+	@DisplayName("Should still find TODOs in files that do not compile")
+	void shouldParseBrokenFiles(@TempDir Path tempDir) throws IOException {
+		Path file = Files.writeString(tempDir.resolve("Broken.java"), """
+				public class Broken {
+				    // TODO: fix the syntax
+				    void method( {
+				}
+				""");
+
+		assertTrue(parse(astParser, file).isEmpty());
+		List<TodoItem> items = parse(lexerParser, file);
+		assertEquals(1, items.size());
+		assertEquals("fix the syntax", items.get(0).getDescription());
+		assertEquals(2, items.get(0).getLineNumber());
+	}
+
+	@Test
+	@DisplayName("Should match configured markers as whole words at the start of a comment line")
+	void shouldMatchConfiguredMarkers(@TempDir Path tempDir) throws IOException {
+		Path file = Files.writeString(tempDir.resolve("Markers.java"), """
+				public class Markers {
+				    // FIXME: broken | category: bug | priority: high
+				    // xxx tidy up
+				    /*
+				     * HACK: temporary workaround
+				     */
+				    // TODOS are not markers
+				    // mention of a TODO in the middle is ignored
+				    // todo: plain task
+				}
+				""");
+		JavaTodoParser parser = new JavaTodoParser(config(JavaParserMode.LEXER, List.of("TODO", "FIXME", "HACK", "XXX")));
+
+		List<TodoItem> items = parse(parser, file);
+
+		assertEquals(List.of("FIXME", "XXX", "HACK", "TODO"), items.stream().map(TodoItem::getMarker).toList());
+		assertEquals(List.of(2, 3, 5, 9), items.stream().map(TodoItem::getLineNumber).toList());
+		assertEquals("broken", items.get(0).getDescription());
+		assertEquals("high", items.get(0).getPriority());
+		assertEquals("bug", items.get(0).getCategory());
+		assertEquals("tidy up", items.get(1).getDescription());
+		assertEquals("temporary workaround", items.get(2).getDescription());
+	}
+
+	private static TodoConfig config(JavaParserMode mode, List<String> markers) {
+		TodoConfig config = new TodoConfig();
+		config.getParsers().setJava(mode);
+		config.setMarkers(markers);
+		return config;
+	}
+
+	private static List<TodoItem> parse(JavaTodoParser parser, Path file) {
+		return parser.parseFile(file).stream()
+				.sorted(Comparator.comparingInt(TodoItem::getLineNumber))
+				.toList();
+	}
+}
@@ -0,0 +1,40 @@
+package ru.itis.todo.parser;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PythonTodoParser comment detection")
+class PythonTodoParserTests {
+	private final PythonTodoParser parser = new PythonTodoParser(new TodoConfig());
+
+	@Test
+	@DisplayName("Should find TODOs after '#' inside string literals and after other comment pragmas")
+	void shouldFindTodoAfterHashInStringsAndPragmas(@TempDir Path tempDir) throws IOException {
+		Path file = Files.writeString(tempDir.resolve("demo.py"), """
+				# TODO: at line start
+				color = "#fff"  # TODO: after a hash in a string
+				x = 1  # noqa # TODO: after a pragma | priority: high
+				s = '# TODO: not a comment'
+				t = "it's \\"#\\"" # TODO: after escaped quotes
+				doc = \"""# TODO: inside a one-line docstring\"""
+				# mention of a TODO in the middle is ignored
+				""");
+
+		List<TodoItem> items = parser.parseFile(file);
+
+		assertEquals(List.of("at line start", "after a hash in a string", "after a pragma", "after escaped quotes"),
+				items.stream().map(TodoItem::getDescription).toList());
+		assertEquals(List.of(1, 2, 3, 5), items.stream().map(TodoItem::getLineNumber).toList());
+		assertEquals("high", items.get(2).getPriority());
+	}
+}
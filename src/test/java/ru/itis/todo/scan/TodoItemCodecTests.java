@@ -0,0 +1,98 @@
+package ru.itis.todo.scan;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itis.todo.api.TodoComment;
+import ru.itis.todo.api.TodoItem;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TodoItemWriter and TodoItemReader binary format")
+class TodoItemCodecTests {
+	private static final int MAGIC = 0x54455354;
+
+	@Test
+	@DisplayName("Should read back every field, including nulls, unicode and framing values")
+	void shouldRoundTripItems() throws IOException {
+		List<TodoItem> items = List.of(
+				item("src/Main.java", "Добавить кэш ✓", 1, "high", "perf", "@alice", new String[]{"cache", "io"}),
+				item("src/Main.java", "Second", 70000, "medium", "feature", null, new String[0]),
+				TodoItem.builder().description("No path").lineNumber(Integer.MAX_VALUE).build());
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (TodoItemWriter writer = new TodoItemWriter(bytes, MAGIC)) {
+			writer.writeVarLong(Long.MAX_VALUE);
+			writer.writeBytes(new byte[]{1, 2, 3});
+			writer.writeItems(items);
+		}
+
+		try (TodoItemReader reader = new TodoItemReader(new ByteArrayInputStream(bytes.toByteArray()), MAGIC)) {
+			assertEquals(Long.MAX_VALUE, reader.readVarLong());
+			assertArrayEquals(new byte[]{1, 2, 3}, reader.readBytes(3));
+			List<TodoItem> read = reader.readItems();
+			reader.verify();
+
+			assertEquals(items, read);
+			assertSame(read.get(0).getFilePath(), read.get(1).getFilePath());
+			assertSame(TodoComment.Priority.HIGH.label(), read.get(0).getPriority());
+			assertNull(read.get(2).getTags());
+		}
+	}
+
+	@Test
+	@DisplayName("Should store repeated paths and metadata once")
+	void shouldDeduplicateStrings() throws IOException {
+		List<TodoItem> items = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			items.add(item("very/long/path/to/the/module/src/main/java/Service.java", "Task " + i, i + 1,
+					"medium", "feature", "@bob", new String[]{"backend"}));
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (TodoItemWriter writer = new TodoItemWriter(bytes, MAGIC)) {
+			writer.writeItems(items);
+		}
+
+		assertTrue(bytes.size() < 20 * items.size(), "Encoded size was " + bytes.size());
+	}
+
+	@Test
+	@DisplayName("Should reject corrupted data and foreign files")
+	void shouldDetectCorruption() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (TodoItemWriter writer = new TodoItemWriter(bytes, MAGIC)) {
+			writer.writeItems(List.of(item("a.py", "Fix parser", 3, "low", "bug", null, new String[0])));
+		}
+		byte[] corrupted = bytes.toByteArray();
+		corrupted[corrupted.length - 8] ^= 0x20;
+
+		assertThrows(IOException.class, () -> {
+			try (TodoItemReader reader = new TodoItemReader(new ByteArrayInputStream(corrupted), MAGIC)) {
+				reader.readItems();
+				reader.verify();
+			}
+		});
+		assertThrows(IOException.class, () -> new TodoItemReader(new ByteArrayInputStream(bytes.toByteArray()), MAGIC + 1));
+	}
+
+	private static TodoItem item(String path, String description, int line, String priority, String category,
+								 String assignee, String[] tags) {
+		return TodoItem.builder()
+				.filePath(Path.of(path))
+				.description(description)
+				.lineNumber(line)
+				.priority(priority)
+				.category(category)
+				.assignee(assignee)
+				.tags(tags)
+				.marker("TODO")
+				.build();
+	}
+}
@@ -0,0 +1,125 @@
+package ru.itis.todo.scan;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.api.cli.TodoCliCommand;
+import ru.itis.todo.git.FileChange;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.parser.JavaTodoParser;
+import ru.itis.todo.parser.PythonTodoParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TodoScanner scan cache and sharding")
+class TodoScannerTests {
+	@TempDir
+	Path dir;
+
+	private final TodoConfig config = new TodoConfig();
+	private final ParserRegistry parsers = new ParserRegistry(List.of(new JavaTodoParser(config), new PythonTodoParser(config)));
+
+	@Test
+	@DisplayName("Should keep cache entries of files a --since scan did not visit")
+	void shouldKeepCacheAfterPartialScan() throws IOException {
+		write("A.java", "// TODO: first");
+		write("B.java", "// TODO: second");
+		write("c.py", "# TODO: third");
+		assertEquals(3, scanner(new SimpleMeterRegistry()).scan(dir, command()).size());
+
+		write("B.java", "// TODO: second, edited");
+		Files.delete(dir.resolve("c.py"));
+		SimpleMeterRegistry since = new SimpleMeterRegistry();
+		List<TodoItem> changed = scanner(since).scanChanges(dir, List.of(
+				FileChange.builder().path("B.java").oldPath("B.java").edits(List.of()).build(),
+				FileChange.builder().oldPath("c.py").edits(List.of()).build()), command()).getItems();
+		assertEquals(List.of("second, edited"), changed.stream().map(TodoItem::getDescription).toList());
+		assertEquals(0, cacheHits(since));
+
+		SimpleMeterRegistry full = new SimpleMeterRegistry();
+		assertEquals(2, scanner(full).scan(dir, command()).size());
+		assertEquals(2, cacheHits(full));
+		assertEquals(0, full.find(TodoMetrics.FILES_PARSED).timers().stream().mapToLong(timer -> timer.count()).sum());
+	}
+
+	@Test
+	@DisplayName("Should update only the files of a --watch batch in the cache")
+	void shouldKeepCacheAfterWatchBatch() throws IOException {
+		write("A.java", "// TODO: first");
+		write("B.java", "// TODO: second");
+		write("c.py", "# TODO: third");
+		scanner(new SimpleMeterRegistry()).scan(dir, command());
+
+		write("A.java", "// TODO: first, edited");
+		Files.delete(dir.resolve("c.py"));
+		scanner(new SimpleMeterRegistry()).scanFiles(dir, List.of(dir.resolve("A.java")), List.of(Path.of("c.py")), command());
+		write("c.py", "# TODO: third");
+
+		SimpleMeterRegistry full = new SimpleMeterRegistry();
+		assertEquals(3, scanner(full).scan(dir, command()).size());
+		// Запись удалённого файла не пережила пачку, даже если файл с тем же размером вернулся
+		assertEquals(2, cacheHits(full));
+	}
+
+	@Test
+	@DisplayName("Should keep cache entries of other shards when a shard is scanned in the same tree")
+	void shouldKeepCacheOfOtherShards() throws IOException {
+		for (int i = 0; i < 20; i++) {
+			write("Task" + i + ".java", "// TODO: task " + i);
+		}
+		scanner(new SimpleMeterRegistry()).scan(dir, command());
+
+		int shardItems = scanner(new SimpleMeterRegistry()).scan(dir, shard(1, 2)).size();
+		assertTrue(shardItems > 0 && shardItems < 20);
+
+		SimpleMeterRegistry full = new SimpleMeterRegistry();
+		assertEquals(20, scanner(full).scan(dir, command()).size());
+		assertEquals(20, cacheHits(full));
+	}
+
+	@Test
+	@DisplayName("Should reject invalid --shard values instead of scanning the whole tree")
+	void shouldRejectInvalidShard() {
+		assertSame(Shard.ALL, Shard.of(command()));
+		assertSame(Shard.ALL, Shard.of(shard(1, 1)));
+		assertEquals(new Shard(2, 3), Shard.of(shard(2, 3)));
+		assertThrows(IllegalArgumentException.class, () -> Shard.of(shard(2, 1)));
+		assertThrows(IllegalArgumentException.class, () -> Shard.of(shard(0, 0)));
+		assertThrows(IllegalArgumentException.class, () -> Shard.of(shard(3, 0)));
+	}
+
+	private TodoCliCommand shard(int index, int count) {
+		TodoCliCommand command = command();
+		command.setShardIndex(index);
+		command.setShardCount(count);
+		return command;
+	}
+
+	private TodoScanner scanner(SimpleMeterRegistry registry) {
+		return new TodoScanner(parsers, config, new TodoMetrics(registry));
+	}
+
+	private TodoCliCommand command() {
+		return TodoCliCommand.builder()
+				.sourceDir(dir)
+				.workingTree(true)
+				.threads(1)
+				.build();
+	}
+
+	private static double cacheHits(SimpleMeterRegistry registry) {
+		return registry.counter(TodoMetrics.FILES_SKIPPED, "reason", "cache").count();
+	}
+
+	private void write(String name, String content) throws IOException {
+		Files.writeString(dir.resolve(name), content + "\n");
+	}
+}
@@ -0,0 +1,113 @@
+package ru.itis.todo.scan;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.itis.todo.api.IssueCreator;
+import ru.itis.todo.api.TodoConfig;
+import ru.itis.todo.api.TodoItem;
+import ru.itis.todo.api.cli.TodoCliCommand;
+import ru.itis.todo.metrics.TodoMetrics;
+import ru.itis.todo.parser.JavaTodoParser;
+import ru.itis.todo.sync.ScanSnapshot;
+import ru.itis.todo.sync.SyncSummary;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TodoWatcher incremental sync in --watch mode")
+class TodoWatcherTests {
+	@TempDir
+	Path dir;
+
+	@Test
+	@DisplayName("Should not sync edits to files and directories ignored by .gitignore")
+	void shouldIgnoreGitignoredEdits() throws Exception {
+		write(".gitignore", "ignored.java\nbuild/\ngenerated/");
+		write("Tracked.java", "// TODO: tracked");
+		write("ignored.java", "// TODO: ignored");
+		write("build/Old.java", "// TODO: old");
+
+		TodoConfig config = new TodoConfig();
+		TodoConfig.FiltersConfig filters = new TodoConfig.FiltersConfig();
+		filters.setGitignore(true);
+		config.setFilters(filters);
+		TodoMetrics metrics = new TodoMetrics(new SimpleMeterRegistry());
+		TodoScanner scanner = new TodoScanner(new ParserRegistry(List.of(new JavaTodoParser(config))), config, metrics);
+		BlockingQueue<ScanSnapshot> syncs = new LinkedBlockingQueue<>();
+		TodoWatcher watcher = new TodoWatcher(scanner, new RecordingIssueCreator(syncs), config, metrics);
+
+		Thread thread = Thread.ofPlatform().start(() -> {
+			try {
+				watcher.watch(dir, command());
+			} catch (IOException | InterruptedException e) {
+				// Наблюдение останавливается прерыванием потока
+			}
+		});
+		try {
+			assertEquals(List.of("tracked"), descriptions(syncs.poll(10, TimeUnit.SECONDS)));
+
+			write("ignored.java", "// TODO: ignored, edited");
+			write("build/Old.java", "// TODO: old, edited");
+			write("generated/New.java", "// TODO: generated");
+			write("Tracked.java", "// TODO: tracked, edited");
+
+			ScanSnapshot snapshot = syncs.poll(10, TimeUnit.SECONDS);
+			assertNotNull(snapshot);
+			assertFalse(snapshot.complete());
+			assertEquals(List.of("tracked, edited"), descriptions(snapshot));
+			assertNull(syncs.poll(500, TimeUnit.MILLISECONDS));
+		} finally {
+			thread.interrupt();
+			thread.join(5000);
+		}
+	}
+
+	private TodoCliCommand command() {
+		return TodoCliCommand.builder()
+				.sourceDir(dir)
+				.workingTree(true)
+				.watch(true)
+				.noCache(true)
+				.threads(1)
+				.debounceMillis(100)
+				.build();
+	}
+
+	private static List<String> descriptions(ScanSnapshot snapshot) {
+		assertNotNull(snapshot);
+		return snapshot.items().stream().map(TodoItem::getDescription).toList();
+	}
+
+	private void write(String name, String content) throws IOException {
+		Path file = dir.resolve(name);
+		Files.createDirectories(file.getParent());
+		Files.writeString(file, content + "\n");
+	}
+
+	private record RecordingIssueCreator(BlockingQueue<ScanSnapshot> syncs) implements IssueCreator {
+		@Override
+		public int createIssues(List<TodoItem> items, boolean dryRun) {
+			return items.size();
+		}
+
+		@Override
+		public boolean issueExists(TodoItem item) {
+			return false;
+		}
+
+		@Override
+		public SyncSummary sync(ScanSnapshot snapshot, boolean dryRun) {
+			syncs.add(snapshot);
+			return new SyncSummary();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package ru.itis.todo.sync;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import ru.itis.todo.api.TodoItem;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IssueReconciler three-way planning")
+class IssueReconcilerTests {
+
+	@Test
+	@DisplayName("Should create missing issues and leave synced ones untouched")
+	void shouldCreateOnlyMissingIssues() {
+		TodoItem synced = item("Synced", 1, "feature");
+		TodoItem fresh = item("Fresh", 2, "feature");
+
+		List<SyncOperation> plan = IssueReconciler.plan(ScanSnapshot.full(List.of(synced, fresh)),
+				List.of(issue(synced, 10, true)), IssueReconcilerTests::render);
+
+		assertEquals(1, plan.size());
+		assertEquals(SyncOperation.Type.CREATE, plan.get(0).type());
+		assertSame(fresh, plan.get(0).item());
+		assertEquals(render(fresh).hash(), SyncState.parse(plan.get(0).body()).hash());
+	}
+
+	@Test
+	@DisplayName("Should update the issue of a moved TODO and keep labels added by people")
+	void shouldUpdateMovedTodo() {
+		TodoItem before = item("Moved", 1, "feature");
+		TodoItem after = item("Moved", 40, "bug");
+		ManagedIssue issue = issue(before, 10, true);
+		issue = new ManagedIssue(issue.fingerprint(), 10, "I_10", true, issue.title(), issue.body(),
+				List.of("todo", "feature", "triaged"));
+
+		List<SyncOperation> plan = IssueReconciler.plan(ScanSnapshot.full(List.of(after)), List.of(issue),
+				IssueReconcilerTests::render);
+
+		assertEquals(1, plan.size());
+		assertEquals(SyncOperation.Type.UPDATE, plan.get(0).type());
+		assertTrue(plan.get(0).body().startsWith("line 40"));
+		assertEquals(List.of("todo", "triaged", "bug"), plan.get(0).labels());
+	}
+
+	@Test
+	@DisplayName("Should close issues of missing TODOs only when the scan is complete or the TODO was removed")
+	void shouldCloseOnlyKnownRemovals() {
+		TodoItem kept = item("Kept", 1, "feature");
+		TodoItem removed = item("Removed", 2, "feature");
+		TodoItem unseen = item("Unseen", 3, "feature");
+		List<ManagedIssue> issues = List.of(issue(kept, 1, true), issue(removed, 2, true), issue(unseen, 3, true));
+
+		List<SyncOperation> partial = IssueReconciler.plan(ScanSnapshot.partial(List.of(kept), List.of(removed)),
+				issues, IssueReconcilerTests::render);
+		List<SyncOperation> full = IssueReconciler.plan(ScanSnapshot.full(List.of(kept)),
+				issues, IssueReconcilerTests::render);
+
+		assertEquals(List.of(2), partial.stream().map(operation -> operation.issue().number()).toList());
+		assertEquals(SyncOperation.Type.CLOSE, partial.get(0).type());
+		assertTrue(SyncState.parse(partial.get(0).body()).closed());
+		assertEquals(2, full.size());
+		assertTrue(full.stream().allMatch(operation -> operation.type() == SyncOperation.Type.CLOSE));
+	}
+
+	@Test
+	@DisplayName("Should reopen only issues that were closed by the sync itself")
+	void shouldReopenOnlyIssuesClosedBySync() {
+		TodoItem returned = item("Returned", 1, "feature");
+		TodoItem wontFix = item("Won't fix", 2, "feature");
+		ManagedIssue closedBySync = issue(returned, 1, false);
+		closedBySync = new ManagedIssue(closedBySync.fingerprint(), 1, "I_1", false, closedBySync.title(),
+				closedBySync.syncState().withClosed(true).applyTo(closedBySync.body()), closedBySync.labels());
+
+		List<SyncOperation> plan = IssueReconciler.plan(ScanSnapshot.full(List.of(returned, wontFix)),
+				List.of(closedBySync, issue(wontFix, 2, false)), IssueReconcilerTests::render);
+
+		assertEquals(1, plan.size());
+		assertEquals(SyncOperation.Type.REOPEN, plan.get(0).type());
+		assertEquals(1, plan.get(0).issue().number());
+		assertTrue(plan.get(0).apply(1, "I_1").open());
+	}
+
+	@Test
+	@DisplayName("Should compare issues created before sync markers with the rendered TODO")
+	void shouldCompareLegacyIssues() {
+		TodoItem item = item("Legacy", 1, "feature");
+		IssueContent content = render(item);
+		ManagedIssue same = new ManagedIssue(item.fingerprint(), 1, "I_1", true, content.title(), content.body(),
+				List.of("feature", "todo", "help wanted"));
+		ManagedIssue edited = new ManagedIssue(item.fingerprint(), 1, "I_1", true, "Edited", content.body(),
+				content.labels());
+
+		assertFalse(IssueReconciler.isChanged(same, content));
+		assertTrue(IssueReconciler.isChanged(edited, content));
+	}
+
+	private static IssueContent render(TodoItem item) {
+		return new IssueContent(item.getDescription(), "line " + item.getLineNumber(), List.of("todo", item.getCategory()));
+	}
+
+	private static ManagedIssue issue(TodoItem item, int number, boolean open) {
+		IssueContent content = render(item);
+		return new ManagedIssue(item.fingerprint(), number, "I_" + number, open, content.title(), content.markedBody(),
+				content.labels());
+	}
+
+	private static TodoItem item(String description, int line, String category) {
+		return TodoItem.builder()
+				.description(description)
+				.filePath(Path.of("src/Main.java"))
+				.lineNumber(line)
+				.priority("medium")
+				.category(category)
+				.tags(new String[0])
+				.build();
+	}
+}